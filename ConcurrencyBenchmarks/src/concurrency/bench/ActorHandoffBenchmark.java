@@ -0,0 +1,124 @@
+package concurrency.bench;
+
+import com.googlecode.actorom.Actor;
+import com.googlecode.actorom.Address;
+import com.googlecode.actorom.Topology;
+import com.googlecode.actorom.annotation.OnMessage;
+import com.googlecode.actorom.local.LocalTopology;
+import concurrency.actor.Good;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures handing goods from producer threads to consumer actors in a
+ * local topology, the way concurrency.actor.local.Main does, in goods per
+ * microsecond. It runs the same batch as HandoffBenchmark so the numbers
+ * line up.
+ *
+ * An actor takes its messages one at a time, so each consumer is an actor
+ * of its own and producers deal goods across them.
+ * @author Ron Coleman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActorHandoffBenchmark {
+    public final static int BATCH = HandoffBenchmark.BATCH;
+
+    @Param({"1", "4"})
+    public int producers;
+
+    @Param({"1", "4"})
+    public int consumers;
+
+    protected Topology topology;
+    protected Actor[] sinks;
+    protected ExecutorService threads;
+    protected final List<Callable<Void>> tasks = new ArrayList<>();
+    protected volatile CountDownLatch done;
+
+    @Setup
+    public void setup() {
+        if(BATCH % (producers * consumers) != 0)
+            throw new IllegalArgumentException(BATCH+" goods don't split over "+producers+" x "+consumers+" threads");
+
+        topology = new LocalTopology("bench");
+        threads = Executors.newFixedThreadPool(producers);
+
+        sinks = new Actor[consumers];
+        for(int c=0; c < consumers; c++)
+            sinks[c] = topology.spawnAndGetActor("SINK"+c, new Sink());
+
+        for(int p=0; p < producers; p++) {
+            Address address = topology.spawnActor("PRODUCER"+p, new Object());
+            tasks.add(new Producer(address, BATCH / producers));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        threads.shutdownNow();
+        topology.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void handoff() throws InterruptedException, ExecutionException {
+        done = new CountDownLatch(BATCH);
+
+        for(Future<Void> future : threads.invokeAll(tasks))
+            future.get();
+
+        done.await();
+    }
+
+    /**
+     * This class is a consumer actor that only counts what it receives.
+     */
+    public class Sink {
+        @OnMessage(type = Good.class)
+        public void onReceive(Good good) {
+            done.countDown();
+        }
+    }
+
+    protected class Producer implements Callable<Void> {
+        protected final Good[] goods;
+
+        public Producer(Address source, int count) {
+            goods = new Good[count];
+            for(int i=0; i < count; i++)
+                goods[i] = new Good(source);
+        }
+
+        @Override
+        public Void call() {
+            for(int i=0; i < goods.length; i++)
+                sinks[i % sinks.length].send(goods[i]);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package concurrency.bench;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class runs the ConcurrencyClinic handoff benchmarks with the GC
+ * profiler, so every result has an allocation rate (gc.alloc.rate.norm is
+ * bytes per good) next to its throughput. Results are also written as
+ * JSON named for the day they were run.
+ *
+ * Usage: Benchmarks [JMH options, e.g. HandoffBenchmark -p producers=1,8]
+ * @author Ron Coleman
+ */
+public class Benchmarks {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        String result = "jmh-" + new SimpleDateFormat("yyyyMMdd-HHmm").format(new Date()) + ".json";
+
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cmd);
+
+        // Run all the benchmarks unless some were named
+        if(cmd.getIncludes().isEmpty())
+            builder.include(Benchmarks.class.getPackage().getName() + ".*");
+
+        Options options = builder
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+
+        new Runner(options).run();
+    }
+}
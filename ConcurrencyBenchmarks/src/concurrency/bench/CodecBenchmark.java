@@ -0,0 +1,100 @@
+package concurrency.bench;
+
+import com.googlecode.actorom.Address;
+import concurrency.actor.Batch;
+import concurrency.actor.Codec;
+import concurrency.actor.CompactCodec;
+import concurrency.actor.Good;
+import concurrency.actor.SerialCodec;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures encoding and decoding a remote actor message, a good alone or
+ * a batch of goods, with Java serialization and with the CompactCodec, in
+ * nanoseconds per message. WireSize prints how big each one is.
+ *
+ * The compact decoder has already seen the producer's address, the way
+ * it has after the first good on a connection.
+ * @author Ron Coleman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    public final static Address SOURCE = Address.newRemoteAddress("127.0.0.1", 9000, "PRODUCER");
+
+    @Param({"serial", "compact"})
+    public String codec;
+
+    @Param({"1", "32"})
+    public int goods;
+
+    protected Codec encoder;
+    protected Codec decoder;
+    protected Serializable message;
+    protected byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException {
+        encoder = newCodec(codec);
+        decoder = newCodec(codec);
+        message = newMessage(goods);
+
+        // The first packet teaches the decoder the address
+        decoder.decode(encoder.encode(message));
+        bytes = encoder.encode(message);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return encoder.encode(message);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return decoder.decode(bytes);
+    }
+
+    /**
+     * Makes a codec by name.
+     * @param name "serial" or "compact"
+     * @return Codec
+     */
+    public static Codec newCodec(String name) {
+        return name.equals("compact") ? new CompactCodec() : new SerialCodec();
+    }
+
+    /**
+     * Makes a message of goods from one producer.
+     * @param goods Number of goods, 1 for a good alone
+     * @return Good or Batch
+     */
+    public static Serializable newMessage(int goods) {
+        if(goods == 1)
+            return new Good(SOURCE);
+
+        List<Good> batch = new ArrayList<>();
+        for(int i=0; i < goods; i++)
+            batch.add(new Good(SOURCE));
+
+        return new Batch(SOURCE, batch);
+    }
+}
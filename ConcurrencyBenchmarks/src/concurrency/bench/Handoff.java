@@ -0,0 +1,182 @@
+package concurrency.bench;
+
+import concurrency.sync.Good;
+import concurrency.sync.RingBuffer;
+import concurrency.sync.WaitStrategy;
+import java.util.LinkedList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+
+/**
+ * This class enumerates the ways to hand a good from producer threads to
+ * consumer threads.
+ *      SYNCHRONIZED is MySyncThread1: a list guarded by a lock that the
+ *          consumer polls, yielding instead of sleeping between polls.
+ *      WAIT_NOTIFY is MySyncThread3: the consumer waits on the list until
+ *          a producer notifies it.
+ *      ARRAY_BLOCKING_QUEUE and LINKED_TRANSFER_QUEUE are the JDK queues.
+ *      RING_* is the lock-free RingBuffer, waiting the way its WaitStrategy
+ *          says. It has one consumer, so each consumer gets a ring of its
+ *          own and producers deal goods across the rings.
+ * @author Ron Coleman
+ */
+public enum Handoff {
+    SYNCHRONIZED {
+        @Override
+        public Channel open(int consumers) {
+            return new Polled();
+        }
+    },
+    WAIT_NOTIFY {
+        @Override
+        public Channel open(int consumers) {
+            return new Notified();
+        }
+    },
+    ARRAY_BLOCKING_QUEUE {
+        @Override
+        public Channel open(int consumers) {
+            return new Queued(new ArrayBlockingQueue<Good>(CAPACITY));
+        }
+    },
+    LINKED_TRANSFER_QUEUE {
+        @Override
+        public Channel open(int consumers) {
+            return new Queued(new LinkedTransferQueue<Good>());
+        }
+    },
+    RING_BLOCKING {
+        @Override
+        public Channel open(int consumers) {
+            return new Rings(consumers, WaitStrategy.BLOCKING);
+        }
+    },
+    RING_SPINNING {
+        @Override
+        public Channel open(int consumers) {
+            return new Rings(consumers, WaitStrategy.SPINNING);
+        }
+    },
+    RING_PARKING {
+        @Override
+        public Channel open(int consumers) {
+            return new Rings(consumers, WaitStrategy.PARKING);
+        }
+    };
+
+    /** Room in the bounded handoffs, the same as MySyncThread's ring */
+    public final static int CAPACITY = 1024;
+
+    /**
+     * Opens a channel for producers to hand goods to consumers.
+     * @param consumers Number of consumer threads
+     * @return Channel
+     */
+    public abstract Channel open(int consumers);
+
+    /**
+     * This class is one handoff between producers and consumers.
+     */
+    public static abstract class Channel {
+        /**
+         * Puts a good.
+         * @param seq Producer's count of goods put so far
+         * @param good Good
+         * @throws InterruptedException If interrupted while waiting
+         */
+        public abstract void put(int seq, Good good) throws InterruptedException;
+
+        /**
+         * Takes a good, waiting for one.
+         * @param consumer Consumer number, 0 to consumers-1
+         * @return Good
+         * @throws InterruptedException If interrupted while waiting
+         */
+        public abstract Good take(int consumer) throws InterruptedException;
+    }
+
+    protected static class Polled extends Channel {
+        protected final LinkedList<Good> list = new LinkedList<>();
+
+        @Override
+        public void put(int seq, Good good) {
+            synchronized(list) {
+                list.add(good);
+            }
+        }
+
+        @Override
+        public Good take(int consumer) {
+            while(true) {
+                synchronized(list) {
+                    if(!list.isEmpty())
+                        return list.remove();
+                }
+
+                Thread.yield();
+            }
+        }
+    }
+
+    protected static class Notified extends Channel {
+        protected final LinkedList<Good> list = new LinkedList<>();
+
+        @Override
+        public void put(int seq, Good good) {
+            synchronized(list) {
+                list.add(good);
+                list.notify();
+            }
+        }
+
+        @Override
+        public Good take(int consumer) throws InterruptedException {
+            synchronized(list) {
+                while(list.isEmpty())
+                    list.wait();
+
+                return list.remove();
+            }
+        }
+    }
+
+    protected static class Queued extends Channel {
+        protected final BlockingQueue<Good> queue;
+
+        public Queued(BlockingQueue<Good> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void put(int seq, Good good) throws InterruptedException {
+            queue.put(good);
+        }
+
+        @Override
+        public Good take(int consumer) throws InterruptedException {
+            return queue.take();
+        }
+    }
+
+    protected static class Rings extends Channel {
+        protected final RingBuffer<Good>[] rings;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Rings(int consumers, WaitStrategy strategy) {
+            rings = new RingBuffer[consumers];
+            for(int i=0; i < consumers; i++)
+                rings[i] = new RingBuffer<>(CAPACITY, true, strategy);
+        }
+
+        @Override
+        public void put(int seq, Good good) throws InterruptedException {
+            rings[seq % rings.length].put(good);
+        }
+
+        @Override
+        public Good take(int consumer) throws InterruptedException {
+            return rings[consumer].take();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package concurrency.bench;
+
+import concurrency.sync.Good;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures handing goods from producer threads to consumer threads with
+ * each Handoff, in goods per microsecond.
+ *
+ * Each call hands over a batch of goods: every producer puts its share
+ * and every consumer takes its share. The goods are made once up front,
+ * so gc.alloc.rate.norm is what the handoff itself allocates per good,
+ * e.g. the list or queue nodes.
+ *
+ * Try more threads with -p producers=1,2,8 -p consumers=1,2,8. The batch
+ * has to split evenly over the producers times the consumers.
+ * @author Ron Coleman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandoffBenchmark {
+    public final static int BATCH = 8192;
+
+    @Param
+    public Handoff handoff;
+
+    @Param({"1", "4"})
+    public int producers;
+
+    @Param({"1", "4"})
+    public int consumers;
+
+    protected ExecutorService threads;
+    protected Handoff.Channel channel;
+    protected final List<Callable<Void>> tasks = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        if(BATCH % (producers * consumers) != 0)
+            throw new IllegalArgumentException(BATCH+" goods don't split over "+producers+" x "+consumers+" threads");
+
+        threads = Executors.newFixedThreadPool(producers + consumers);
+        channel = handoff.open(consumers);
+
+        for(int p=0; p < producers; p++)
+            tasks.add(new Producer(BATCH / producers));
+
+        for(int c=0; c < consumers; c++)
+            tasks.add(new Consumer(c, BATCH / consumers));
+    }
+
+    @TearDown
+    public void tearDown() {
+        threads.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void handoff() throws InterruptedException, ExecutionException {
+        for(Future<Void> future : threads.invokeAll(tasks))
+            future.get();
+    }
+
+    protected class Producer implements Callable<Void> {
+        protected final Good[] goods;
+
+        public Producer(int count) {
+            goods = new Good[count];
+            for(int i=0; i < count; i++)
+                goods[i] = new Good();
+        }
+
+        @Override
+        public Void call() throws InterruptedException {
+            for(int i=0; i < goods.length; i++)
+                channel.put(i, goods[i]);
+            return null;
+        }
+    }
+
+    protected class Consumer implements Callable<Void> {
+        protected final int number;
+        protected final int count;
+
+        public Consumer(int number, int count) {
+            this.number = number;
+            this.count = count;
+        }
+
+        @Override
+        public Void call() throws InterruptedException {
+            for(int i=0; i < count; i++) {
+                if(channel.take(number) == null)
+                    throw new IllegalStateException("consumer "+number+" took nothing");
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package concurrency.bench;
+
+import concurrency.actor.Codec;
+import concurrency.actor.Packet;
+import concurrency.actor.Traffic;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * This class prints the bytes a remote actor message takes with each codec,
+ * alone and as the topology sends it: serial messages are serialized as
+ * they are and compact ones go in a Packet.
+ *
+ * Usage: WireSize [goods per message, e.g. 1,32]
+ * @author Ron Coleman
+ */
+public class WireSize {
+    public static void main(String[] args) throws IOException {
+        String sizes = args.length > 0 ? args[0] : "1,32";
+
+        System.out.printf("%-8s %6s %10s %10s %10s%n", "codec", "goods", "encoded", "sent", "sent/good");
+
+        for(String size : sizes.split(",")) {
+            int goods = Integer.parseInt(size.trim());
+
+            for(String name : new String[] { "serial", "compact" }) {
+                Codec codec = CodecBenchmark.newCodec(name);
+                Serializable message = CodecBenchmark.newMessage(goods);
+
+                // After the first message the address is interned
+                codec.encode(message);
+                byte[] bytes = codec.encode(message);
+
+                int sent = Traffic.sizeOf(name.equals("compact") ? new Packet(bytes) : message);
+
+                System.out.printf("%-8s %6d %10d %10d %10.1f%n", name, goods, bytes.length, sent, (double) sent / goods);
+            }
+        }
+    }
+}
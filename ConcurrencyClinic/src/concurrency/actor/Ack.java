@@ -6,23 +6,60 @@
 
 package concurrency.actor;
 
+import java.io.Serializable;
+
 /**
  *
  * @author roncoleman125
  */
-public class Ack {
+public class Ack implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final int id;
+    private final boolean cumulative;
+    private final int credits;
     
     public Ack(int id) {
+        this(id, false);
+    }
+    
+    /**
+     * Constructor
+     * @param id Sequence number of the good acknowledged
+     * @param cumulative True to acknowledge every good up to the id too
+     */
+    public Ack(int id, boolean cumulative) {
+        this(id, cumulative, 0);
+    }
+    
+    /**
+     * Constructor
+     * @param id Sequence number of the good acknowledged
+     * @param cumulative True to acknowledge every good up to the id too
+     * @param credits Most goods the producer may have unacknowledged once
+     * it has this ack, 0 to grant nothing
+     */
+    public Ack(int id, boolean cumulative, int credits) {
         this.id = id;
+        this.cumulative = cumulative;
+        this.credits = credits;
     }
 
     public int getId() {
         return id;
     }
+
+    public boolean isCumulative() {
+        return cumulative;
+    }
+
+    public int getCredits() {
+        return credits;
+    }
     
     @Override
     public String toString() {
-        return "ack id = "+getId();
+        return (cumulative ? "ack ids up to " : "ack id = ")+getId()+
+                (credits > 0 ? ", credits = "+credits : "");
     }
 }
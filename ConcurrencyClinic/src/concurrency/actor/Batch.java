@@ -0,0 +1,52 @@
+package concurrency.actor;
+
+import com.googlecode.actorom.Address;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * This class is a batch of goods sent to the consumer in one message.
+ * The consumer acknowledges the whole batch with one cumulative Ack.
+ * @author Ron Coleman
+ */
+public class Batch implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Address source;
+    private final Good[] goods;
+
+    /**
+     * Constructor
+     * @param source Address of the producer
+     * @param goods Goods in the order they were produced
+     */
+    public Batch(Address source, List<Good> goods) {
+        this.source = source;
+        this.goods = goods.toArray(new Good[goods.size()]);
+    }
+
+    public Address getSource() {
+        return source;
+    }
+
+    public Good[] getGoods() {
+        return goods;
+    }
+
+    public int size() {
+        return goods.length;
+    }
+
+    /**
+     * Gets the highest sequence number in the batch, which the consumer
+     * acknowledges along with every one before it.
+     * @return Sequence number
+     */
+    public int getLastSeq() {
+        int last = -1;
+        for(Good good : goods)
+            last = Math.max(last, good.getSeq());
+
+        return last;
+    }
+}
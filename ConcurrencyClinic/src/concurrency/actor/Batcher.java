@@ -0,0 +1,113 @@
+package concurrency.actor;
+
+import com.googlecode.actorom.Actor;
+import com.googlecode.actorom.Address;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class gathers goods into batches for a consumer actor. A batch goes
+ * when it is full or when its first good has lingered long enough, so a
+ * slow trickle of goods isn't held back waiting for a full batch.
+ * @author Ron Coleman
+ */
+public class Batcher {
+    protected final Actor consumer;
+    protected final Address source;
+    protected final int size;
+    protected final long linger;
+    protected final Codec codec;
+    protected final Traffic traffic;
+    protected final ScheduledExecutorService timer;
+    protected List<Good> goods;
+    protected ScheduledFuture<?> lingering;
+
+    /**
+     * Constructor
+     * @param consumer Consumer actor
+     * @param source Address of the producer
+     * @param size Most goods in a batch
+     * @param linger Most milliseconds a good waits for its batch to fill, 0 to wait for a full batch
+     * @param codec Codec to send batches in a Packet with, or null to send them as they are
+     * @param traffic Traffic to count batches in, or null
+     */
+    public Batcher(Actor consumer, Address source, int size, long linger, Codec codec, Traffic traffic) {
+        this.consumer = consumer;
+        this.source = source;
+        this.size = size;
+        this.linger = linger;
+        this.codec = codec;
+        this.traffic = traffic;
+        this.goods = new ArrayList<>(size);
+
+        this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "batcher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Adds a good to the batch, sending the batch if it is full.
+     * @param good Good
+     */
+    public synchronized void add(Good good) {
+        goods.add(good);
+
+        if(goods.size() >= size)
+            flush();
+        else if(goods.size() == 1 && linger > 0)
+            lingering = timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, linger, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends the goods gathered so far, if any.
+     */
+    public synchronized void flush() {
+        if(goods.isEmpty())
+            return;
+
+        if(lingering != null) {
+            lingering.cancel(false);
+            lingering = null;
+        }
+
+        Batch batch = new Batch(source, goods);
+        goods = new ArrayList<>(size);
+
+        Serializable message;
+        try {
+            message = Packet.wrap(codec, batch);
+        } catch (IOException ex) {
+            throw new IllegalStateException("can't encode a batch", ex);
+        }
+
+        consumer.send(message);
+
+        if(traffic != null)
+            traffic.sent(message, batch.size());
+    }
+
+    /**
+     * Sends what is left and stops the linger timer.
+     */
+    public void close() {
+        flush();
+        timer.shutdown();
+    }
+}
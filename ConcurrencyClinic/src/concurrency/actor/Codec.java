@@ -0,0 +1,27 @@
+package concurrency.actor;
+
+import java.io.IOException;
+
+/**
+ * This interface turns the messages between remote actors into bytes and
+ * back. A codec is sent in a Packet, so the topology only ever serializes
+ * the bytes.
+ * @author Ron Coleman
+ */
+public interface Codec {
+    /**
+     * Encodes a message.
+     * @param message Good, Batch or Ack
+     * @return Bytes
+     * @throws IOException If the message can't be encoded
+     */
+    public byte[] encode(Object message) throws IOException;
+
+    /**
+     * Decodes a message.
+     * @param bytes Bytes from encode()
+     * @return Message
+     * @throws IOException If the bytes aren't a message
+     */
+    public Object decode(byte[] bytes) throws IOException;
+}
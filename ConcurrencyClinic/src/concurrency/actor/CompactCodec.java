@@ -0,0 +1,197 @@
+package concurrency.actor;
+
+import com.googlecode.actorom.Address;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class encodes goods, batches and acks in a few fixed-width fields
+ * instead of Java serialization.
+ *
+ * A packet is
+ *      version     byte
+ *      session     int, which encoder sent it
+ *      type        byte, GOOD, BATCH or ACK
+ * followed by
+ *      GOOD        source, id int, seq int, intended long
+ *      BATCH       count int, then count goods, the first one's source
+ *                  being the batch's
+ *      ACK         id int, cumulative boolean, credits int
+ * A source is a short index into a table of the addresses the encoder has
+ * sent before. The first time an address goes, its index has the NEW bit
+ * set and the address follows it, and the decoder adds it to its table for
+ * that session. So a good costs 18 bytes after its producer's first.
+ *
+ * The decoder has to see packets in the order they were encoded, which it
+ * does as long as each encoder's packets go down one connection in the
+ * order they were encoded.
+ * @author Ron Coleman
+ */
+public class CompactCodec implements Codec {
+    protected final static byte VERSION = 3;
+    protected final static byte GOOD = 1;
+    protected final static byte BATCH = 2;
+    protected final static byte ACK = 3;
+
+    protected final static int NEW = 0x8000;
+    protected final static int NO_ADDRESS = 0x7FFF;
+    protected final static int NOT_INTERNED = 0x7FFE;
+
+    protected final int session = new Random().nextInt();
+    protected final Map<Address,Integer> interned = new HashMap<>();
+    protected final Map<Integer,List<Address>> tables = new HashMap<>();
+
+    @Override
+    public synchronized byte[] encode(Object message) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(32);
+        DataOutputStream out = new DataOutputStream(buffer);
+
+        out.writeByte(VERSION);
+        out.writeInt(session);
+
+        if(message instanceof Good) {
+            out.writeByte(GOOD);
+            writeGood(out, (Good) message);
+        }
+        else if(message instanceof Batch) {
+            Batch batch = (Batch) message;
+
+            out.writeByte(BATCH);
+            out.writeInt(batch.size());
+            for(Good good : batch.getGoods())
+                writeGood(out, good);
+        }
+        else if(message instanceof Ack) {
+            Ack ack = (Ack) message;
+
+            out.writeByte(ACK);
+            out.writeInt(ack.getId());
+            out.writeBoolean(ack.isCumulative());
+            out.writeInt(ack.getCredits());
+        }
+        else
+            throw new IOException("can't encode "+(message == null ? null : message.getClass().getName()));
+
+        return buffer.toByteArray();
+    }
+
+    @Override
+    public synchronized Object decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        byte version = in.readByte();
+        if(version != VERSION)
+            throw new IOException("unknown version "+version);
+
+        int sender = in.readInt();
+
+        List<Address> table = tables.get(sender);
+        if(table == null) {
+            table = new ArrayList<>();
+            tables.put(sender, table);
+        }
+
+        byte type = in.readByte();
+        switch(type) {
+            case GOOD:
+                return readGood(in, table);
+
+            case BATCH:
+                int count = in.readInt();
+
+                List<Good> goods = new ArrayList<>(count);
+                for(int i=0; i < count; i++)
+                    goods.add(readGood(in, table));
+
+                return new Batch(goods.isEmpty() ? null : goods.get(0).getSource(), goods);
+
+            case ACK:
+                return new Ack(in.readInt(), in.readBoolean(), in.readInt());
+
+            default:
+                throw new IOException("unknown type "+type);
+        }
+    }
+
+    protected void writeGood(DataOutputStream out, Good good) throws IOException {
+        writeAddress(out, good.getSource());
+        out.writeInt(good.getId());
+        out.writeInt(good.getSeq());
+        out.writeLong(good.getIntended());
+    }
+
+    protected Good readGood(DataInputStream in, List<Address> table) throws IOException {
+        Address source = readAddress(in, table);
+        int id = in.readInt();
+        int seq = in.readInt();
+        return new Good(id, source, in.readLong(), seq);
+    }
+
+    protected void writeAddress(DataOutputStream out, Address address) throws IOException {
+        if(address == null) {
+            out.writeShort(NO_ADDRESS);
+            return;
+        }
+
+        Integer index = interned.get(address);
+        if(index != null) {
+            out.writeShort(index);
+            return;
+        }
+
+        // A full table sends the rest of the addresses whole every time
+        index = interned.size();
+        if(index < NOT_INTERNED)
+            interned.put(address, index);
+        else
+            index = NOT_INTERNED;
+
+        out.writeShort(NEW | index);
+        out.writeBoolean(address.isRemote());
+        out.writeUTF(address.getHost());
+        out.writeInt(address.getPort());
+        out.writeUTF(address.getId());
+    }
+
+    protected Address readAddress(DataInputStream in, List<Address> table) throws IOException {
+        int index = in.readUnsignedShort();
+
+        if(index == NO_ADDRESS)
+            return null;
+
+        if((index & NEW) == 0) {
+            if(index >= table.size())
+                throw new IOException("unknown address "+index);
+
+            return table.get(index);
+        }
+
+        boolean remote = in.readBoolean();
+        String host = in.readUTF();
+        int port = in.readInt();
+        String id = in.readUTF();
+
+        // Local hosts are the topology's name after "vm:"
+        Address address = remote ?
+                Address.newRemoteAddress(host, port, id) :
+                Address.newLocalAddress(host.substring(host.indexOf(':') + 1), id);
+
+        index &= ~NEW;
+        if(index != NOT_INTERNED) {
+            if(index != table.size())
+                throw new IOException("address "+index+" out of order");
+
+            table.add(address);
+        }
+
+        return address;
+    }
+}
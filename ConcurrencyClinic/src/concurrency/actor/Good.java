@@ -8,20 +8,47 @@ package concurrency.actor;
 
 import com.googlecode.actorom.Address;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *
  * @author roncoleman125
  */
 public class Good implements Serializable {
-    private static int serialno = 0;
+    private static final long serialVersionUID = 1L;
+    
+    private static final AtomicInteger serialno = new AtomicInteger();
     
     private final int id;
     private final Address source;
+    private final long intended;
+    private int seq = -1;
     
     public Good(Address source) {
-        this.id = serialno++;
+        this(source, System.nanoTime());
+    }
+    
+    /**
+     * Constructor
+     * @param source Address of the producer
+     * @param intended When the good was meant to be produced, in System.nanoTime()
+     */
+    public Good(Address source, long intended) {
+        this(serialno.getAndIncrement(), source, intended, -1);
+    }
+    
+    /**
+     * Constructor for a good decoded by a Codec.
+     * @param id Id
+     * @param source Address of the producer
+     * @param intended When the good was meant to be produced
+     * @param seq Place in the producer's send order
+     */
+    Good(int id, Address source, long intended, int seq) {
+        this.id = id;
         this.source = source;
+        this.intended = intended;
+        this.seq = seq;
     }
 
     public int getId() {
@@ -31,4 +58,31 @@ public class Good implements Serializable {
     public Address getSource() {
         return source;
     }
+
+    /**
+     * Gets the good's place in the order its producer sent goods, which
+     * the consumer acknowledges it by.
+     * @return Sequence number, -1 until sent
+     */
+    public int getSeq() {
+        return seq;
+    }
+
+    /**
+     * Sets the good's place in the order its producer sent goods. The
+     * producer sets it as it sends the good.
+     * @param seq Sequence number
+     */
+    public void setSeq(int seq) {
+        this.seq = seq;
+    }
+
+    /**
+     * Gets when the good was meant to be produced. It is only comparable
+     * to System.nanoTime() in the JVM that produced it.
+     * @return Time in System.nanoTime()
+     */
+    public long getIntended() {
+        return intended;
+    }
 }
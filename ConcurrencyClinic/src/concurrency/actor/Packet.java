@@ -0,0 +1,56 @@
+package concurrency.actor;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+
+/**
+ * This class is a message encoded by a Codec. It writes itself as its
+ * length and bytes, so serializing it costs next to nothing beyond the
+ * bytes themselves.
+ * @author Ron Coleman
+ */
+public class Packet implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    private byte[] bytes;
+
+    /**
+     * Constructor for deserializing.
+     */
+    public Packet() {
+    }
+
+    public Packet(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Encodes a message into a packet if there is a codec.
+     * @param codec Codec or null
+     * @param message Message
+     * @return Packet, or the message if there is no codec
+     * @throws IOException If the message can't be encoded
+     */
+    public static Serializable wrap(Codec codec, Serializable message) throws IOException {
+        return codec == null ? message : new Packet(codec.encode(message));
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+    }
+}
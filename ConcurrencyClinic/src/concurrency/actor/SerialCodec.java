@@ -0,0 +1,35 @@
+package concurrency.actor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * This class encodes messages with Java serialization, the way the topology
+ * does when it is given them as they are. It is what CompactCodec is
+ * measured against.
+ * @author Ron Coleman
+ */
+public class SerialCodec implements Codec {
+    @Override
+    public byte[] encode(Object message) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        try(ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(message);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException {
+        try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (ClassNotFoundException ex) {
+            throw new IOException(ex);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package concurrency.actor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class counts the messages one end of a remote actor pair sends,
+ * the items they carry and their size when serialized. Sizing a message
+ * serializes it a second time, so it costs about what sending does.
+ * @author Ron Coleman
+ */
+public class Traffic {
+    protected final AtomicLong messages = new AtomicLong();
+    protected final AtomicLong items = new AtomicLong();
+    protected final AtomicLong bytes = new AtomicLong();
+    protected volatile long first;
+    protected volatile long last;
+
+    /**
+     * Counts a message sent.
+     * @param message Message
+     * @param count Number of items it carries, e.g. goods in a batch
+     */
+    public void sent(Serializable message, int count) {
+        long now = System.nanoTime();
+        if(messages.getAndIncrement() == 0)
+            first = now;
+
+        items.addAndGet(count);
+        bytes.addAndGet(sizeOf(message));
+        last = now;
+    }
+
+    public long getMessages() {
+        return messages.get();
+    }
+
+    public long getItems() {
+        return items.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Gets the messages sent per second, from the first to the last.
+     * @return Rate
+     */
+    public double getMessageRate() {
+        double seconds = (last - first) / 1e9;
+        return seconds <= 0 ? 0 : messages.get() / seconds;
+    }
+
+    /**
+     * Gets the bytes sent per item.
+     * @return Bytes
+     */
+    public double getBytesPerItem() {
+        long count = items.get();
+        return count == 0 ? 0 : (double) bytes.get() / count;
+    }
+
+    /**
+     * Prints the traffic.
+     * @param out Where to print
+     * @param name Name of what was sent
+     */
+    public void report(PrintStream out, String name) {
+        out.printf("  %-6s %8d msgs %10.0f msgs/sec %8d items %8.1f B/item%n",
+                name, getMessages(), getMessageRate(), getItems(), getBytesPerItem());
+    }
+
+    /**
+     * Gets the size of a message serialized on a stream of its own, the
+     * way it goes to a remote actor.
+     * @param message Message
+     * @return Bytes
+     */
+    public static int sizeOf(Serializable message) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        try(ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(message);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+
+        return buffer.size();
+    }
+}
@@ -10,6 +10,7 @@ import com.googlecode.actorom.Topology;
 import com.googlecode.actorom.annotation.OnMessage;
 import com.googlecode.actorom.annotation.TopologyInstance;
 import concurrency.actor.Good;
+import concurrency.latency.LatencyRecorder;
 import java.util.Random;
 
 /**
@@ -20,8 +21,31 @@ public class Consumer {
     public final static String ID = "CONSUMER";
     protected final static long MEAN_DELAY = 2000;
     protected Random ran = new Random();
+    protected final long meanDelay;
+    protected LatencyRecorder recorder;
     @TopologyInstance protected Topology topology;
     
+    public Consumer() {
+        this(MEAN_DELAY);
+    }
+    
+    /**
+     * Constructor
+     * @param meanDelay Mean milliseconds to process a good
+     */
+    public Consumer(long meanDelay) {
+        this.meanDelay = meanDelay;
+    }
+    
+    /**
+     * Sets a recorder for the latency of each good received. Goods are
+     * recorded instead of printed.
+     * @param recorder Recorder
+     */
+    public void setRecorder(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
     /**
      * Receives a good and processes it.
      * @param good Good
@@ -29,11 +53,18 @@ public class Consumer {
     @OnMessage(type = Good.class)
     public void onReceive(Good good) {
         try {
-            long delay = Math.abs(ran.nextLong()) % (MEAN_DELAY*2);
+            long taken = System.nanoTime();
+            
+            if(meanDelay > 0) {
+                long delay = Math.abs(ran.nextLong()) % (meanDelay*2);
             
-            Thread.sleep(delay);
+                Thread.sleep(delay);
+            }
             
-            System.out.println("consumed "+good);
+            if(recorder != null)
+                recorder.record(good.getIntended(), taken, System.nanoTime());
+            else
+                System.out.println("consumed "+good);
         } catch (InterruptedException ex) {
             System.out.println(ex);
         }
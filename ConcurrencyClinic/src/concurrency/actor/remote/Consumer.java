@@ -1,14 +1,31 @@
 package concurrency.actor.remote;
 
 import com.googlecode.actorom.Actor;
+import com.googlecode.actorom.Address;
 import com.googlecode.actorom.annotation.OnMessage;
+import com.googlecode.actorom.remote.ClientTopology;
 import com.googlecode.actorom.remote.ServerTopology;
 import concurrency.actor.Ack;
+import concurrency.actor.Batch;
+import concurrency.actor.Codec;
+import concurrency.actor.CompactCodec;
 import concurrency.actor.Good;
+import concurrency.actor.Packet;
+import concurrency.actor.Traffic;
+import concurrency.latency.LatencyRecorder;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is the "scale-out" consumer actor.
+ *
+ * Given a window, its Acks grant the producer credit for that many goods
+ * unacknowledged, so no more than a window of goods waits in its mailbox
+ * however far behind it falls.
  * @author Ron Coleman
  */
 public class Consumer {
@@ -16,15 +33,86 @@ public class Consumer {
     public final static int PORT = 8000;
     public final static String ID = "CONSUMER";
     protected final static long MEAN_DELAY = 1000;
+    protected final static long TIMEOUT = 5;
+    protected final static long KEEP_ALIVE = 1;
     protected static ServerTopology serverTopology = new ServerTopology(HOST,PORT);
+    protected static Map<String,ClientTopology> clients = new HashMap<>();
     protected Random ran = new Random();
+    protected final long meanDelay;
+    protected LatencyRecorder recorder;
+    protected Traffic traffic;
+    protected Codec codec;
+    protected int window;
     
     /**
      * Entry for the consumer.
-     * @param args Command line arguments
+     * @param args Command line arguments: the window to grant, if any
      */
     public static void main(String[] args) {
-        serverTopology.spawnActor(ID, new Consumer());  
+        Consumer consumer = new Consumer();
+        
+        if(args.length > 0)
+            consumer.setWindow(Integer.parseInt(args[0]));
+        
+        serverTopology.spawnActor(ID, consumer);  
+    }
+    
+    public Consumer() {
+        this(MEAN_DELAY);
+    }
+    
+    /**
+     * Constructor
+     * @param meanDelay Mean milliseconds to process a good
+     */
+    public Consumer(long meanDelay) {
+        this.meanDelay = meanDelay;
+    }
+    
+    /**
+     * Gets the topology the consumer listens on.
+     * @return Topology
+     */
+    public static ServerTopology getTopology() {
+        return serverTopology;
+    }
+    
+    /**
+     * Sets a recorder for the latency of each good received. Goods are
+     * recorded instead of printed. The producer has to be in this JVM for
+     * the times to compare.
+     * @param recorder Recorder
+     */
+    public void setRecorder(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    /**
+     * Sets the traffic to count the acknowledgments sent in.
+     * @param traffic Traffic
+     */
+    public void setTraffic(Traffic traffic) {
+        this.traffic = traffic;
+    }
+    
+    /**
+     * Sets the codec to decode packets and encode their acks with. The
+     * CompactCodec is used if none is set.
+     * @param codec Codec
+     */
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+    
+    /**
+     * Sets the window of goods to grant the producer in each Ack.
+     * @param window Number of goods, 0 to grant none
+     */
+    public void setWindow(int window) {
+        if(window < 0)
+            throw new IllegalArgumentException("window must not be negative: "+window);
+        
+        this.window = window;
     }
     
     /**
@@ -33,20 +121,104 @@ public class Consumer {
      */
     @OnMessage(type = Good.class)
     public void onReceive(Good good) {
+        receive(good, null);
+    }
+    
+    /**
+     * Processes a batch of goods and acknowledges them all at once.
+     * @param batch Batch
+     */
+    @OnMessage(type = Batch.class)
+    public void onReceive(Batch batch) {
+        receive(batch, null);
+    }
+    
+    /**
+     * Processes a good or batch sent with a codec, and acknowledges it
+     * with the same codec.
+     * @param packet Packet
+     */
+    @OnMessage(type = Packet.class)
+    public void onReceive(Packet packet) {
+        if(codec == null)
+            codec = new CompactCodec();
+        
         try {
-            long delay = Math.abs(ran.nextLong()) % (MEAN_DELAY*2);
-            
+            receive(codec.decode(packet.getBytes()), codec);
+        } catch (IOException ex) {
+            System.err.println(ex);
+        }
+    }
+    
+    protected void receive(Object message, Codec replyCodec) {
+        try {
+            if(message instanceof Batch) {
+                Batch batch = (Batch) message;
+                
+                for(Good good : batch.getGoods())
+                    consume(good);
+
+                ack(batch.getSource(), new Ack(batch.getLastSeq(), true, window), batch.size(), replyCodec);
+            }
+            else {
+                Good good = (Good) message;
+                
+                consume(good);
+                
+                // Send an ACK reply
+                ack(good.getSource(), new Ack(good.getSeq(), false, window), 1, replyCodec);
+            }
+        } catch (InterruptedException ex) {
+
+        } catch (IOException ex) {
+            System.err.println(ex);
+        }
+    }
+    
+    protected void consume(Good good) throws InterruptedException {
+        long taken = System.nanoTime();
+
+        if(meanDelay > 0) {
+            long delay = Math.abs(ran.nextLong()) % (meanDelay*2);
+
             Thread.sleep(delay);   
-            
+        }
+
+        if(recorder != null)
+            recorder.record(good.getIntended(), taken, System.nanoTime());
+        else
             System.out.println("consumed "+good);
-            
-            // Send an ACK reply
-            Actor actor = serverTopology.getActor(good.getSource());
-            
-            actor.send(new Ack(good.getId()));
-            
-        } catch (InterruptedException ex) {
+    }
+    
+    protected void ack(Address source, Ack ack, int goods, Codec replyCodec) throws IOException {
+        Actor actor = getActor(source);
+        
+        Serializable message = Packet.wrap(replyCodec, ack);
 
+        actor.send(message);
+        
+        if(traffic != null)
+            traffic.sent(message, goods);
+    }
+    
+    /**
+     * Gets an actor on another server. A server topology only has its own
+     * actors, so this connects a client topology to the actor's server the
+     * first time it is needed.
+     * @param address Remote address
+     * @return Actor
+     */
+    public static synchronized Actor getActor(Address address) {
+        String server = address.getHost()+":"+address.getPort();
+        
+        ClientTopology client = clients.get(server);
+        if(client == null) {
+            client = new ClientTopology(address.getHost(), address.getPort(),
+                    TIMEOUT, TimeUnit.SECONDS, KEEP_ALIVE, TimeUnit.SECONDS);
+            
+            clients.put(server, client);
         }
+        
+        return client.getActor(address);
     }
 }
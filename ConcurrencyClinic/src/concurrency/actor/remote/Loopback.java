@@ -0,0 +1,103 @@
+package concurrency.actor.remote;
+
+import com.googlecode.actorom.Actor;
+import com.googlecode.actorom.Address;
+import com.googlecode.actorom.remote.ServerTopology;
+import concurrency.actor.CompactCodec;
+import concurrency.actor.Traffic;
+import concurrency.latency.LatencyRecorder;
+
+/**
+ * This class runs the Producer and Consumer in one JVM, talking over the
+ * loopback, and reports the traffic each way for each batch size and
+ * codec. A batch size of 1 sends every good alone with an Ack each, as the
+ * demo always has. The codec is "serial" to let the topology serialize
+ * messages, as it always has, or "compact" for the CompactCodec.
+ *
+ * A window of 0 lets the producer send as fast as it can; otherwise the
+ * consumer grants that many goods of credit and the producer waits when it
+ * runs out. Give the consumer a service time to see it fall behind.
+ *
+ * Usage: Loopback [goods] [batch sizes, e.g. 1,16,128] [linger ms]
+ *          [codecs, e.g. serial,compact] [windows, e.g. 0,64] [service ms]
+ * @author Ron Coleman
+ */
+public class Loopback {
+    protected final static int GOODS = 10000;
+    protected final static String BATCH_SIZES = "1,16,128";
+    protected final static long LINGER = 5;
+    protected final static String CODECS = "serial,compact";
+    protected final static String WINDOWS = "0";
+    protected final static long DRAIN_TIME = 60000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int goods = args.length > 0 ? Integer.parseInt(args[0]) : GOODS;
+        String sizes = args.length > 1 ? args[1] : BATCH_SIZES;
+        long linger = args.length > 2 ? Long.parseLong(args[2]) : LINGER;
+        String codecs = args.length > 3 ? args[3] : CODECS;
+        String windows = args.length > 4 ? args[4] : WINDOWS;
+        long service = args.length > 5 ? Long.parseLong(args[5]) : 0;
+
+        ServerTopology producerTopology = new ServerTopology(Producer.HOST, Producer.PORT);
+
+        int run = 0;
+        for(String codec : codecs.split(","))
+            for(String size : sizes.split(","))
+                for(String window : windows.split(","))
+                    run(producerTopology, ++run, goods, Integer.parseInt(size.trim()), linger, codec.trim(),
+                            Integer.parseInt(window.trim()), service);
+
+        System.exit(0);
+    }
+
+    /**
+     * Sends goods to a fresh consumer until they are all acknowledged.
+     * @param producerTopology Server for the producer
+     * @param run Run number, to name the actors
+     * @param goods Number of goods
+     * @param batchSize Most goods in a batch
+     * @param linger Most milliseconds a good waits for its batch to fill
+     * @param codec "serial" or "compact"
+     * @param window Most goods unacknowledged, 0 for no limit
+     * @param service Mean milliseconds the consumer takes per good
+     * @throws InterruptedException If interrupted
+     */
+    protected static void run(ServerTopology producerTopology, int run, int goods, int batchSize, long linger, String codec,
+            int window, long service) throws InterruptedException {
+        String consumerId = Consumer.ID + "-" + run;
+        Consumer consumer = new Consumer(service);
+        consumer.setWindow(window);
+        consumer.setRecorder(new LatencyRecorder());
+        Traffic acks = new Traffic();
+        consumer.setTraffic(acks);
+        Consumer.getTopology().spawnActor(consumerId, consumer);
+
+        Actor consumerActor = Consumer.getActor(Address.newRemoteAddress(Consumer.HOST, Consumer.PORT, consumerId));
+
+        Producer producer = new Producer(consumerActor);
+        producer.setRecorder(new LatencyRecorder());
+        Traffic sent = new Traffic();
+        producer.setTraffic(sent);
+        producer.setMyAddress(producerTopology.spawnActor(Producer.ID + "-" + run, producer));
+        if(codec.equalsIgnoreCase("compact"))
+            producer.setCodec(new CompactCodec());
+        producer.setWindow(window);
+        producer.setBatching(batchSize, linger);
+
+        long start = System.nanoTime();
+        producer.produce(goods, 0);
+
+        long deadline = System.currentTimeMillis() + DRAIN_TIME;
+        while(producer.getAcked() < goods && System.currentTimeMillis() < deadline)
+            Thread.sleep(1);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-7s batch %-4d %8d of %d goods acked in %.2f sec, %.0f goods/sec%n",
+                codec, batchSize, producer.getAcked(), goods, seconds, producer.getAcked() / seconds);
+        System.out.printf("  window %-4d %8d in flight at most %8d stalls %10.0f ms stalled%n",
+                window, producer.getMaxInFlight(), producer.getStalls(), producer.getStallTime() / 1e6);
+        sent.report(System.out, "goods");
+        acks.report(System.out, "acks");
+    }
+}
@@ -5,11 +5,32 @@ import com.googlecode.actorom.Address;
 import com.googlecode.actorom.annotation.OnMessage;
 import com.googlecode.actorom.remote.ServerTopology;
 import concurrency.actor.Ack;
+import concurrency.actor.Batcher;
+import concurrency.actor.Codec;
+import concurrency.actor.CompactCodec;
 import concurrency.actor.Good;
+import concurrency.actor.Packet;
+import concurrency.actor.Traffic;
+import concurrency.latency.LatencyRecorder;
+import java.io.IOException;
+import java.util.NavigableSet;
 import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is the "scale-out" producer actor.
+ * Given a batch size on the command line, e.g. 32, and a linger time in
+ * milliseconds it sends goods in batches, which the consumer acknowledges
+ * with one cumulative Ack each. Given "compact" after those it sends them
+ * with the CompactCodec instead of Java serialization.
+ *
+ * Given a window after those, e.g. 64, it sends no more than that many
+ * goods ahead of the consumer's acks: once the window is full, send waits
+ * for an Ack to free some of it. A consumer can grant a different window
+ * with the credits in its Acks. Without a window a producer sends as fast
+ * as it can and the consumer's mailbox grows as long as it falls behind.
  * @author Ron Coleman
  */
 public class Producer {
@@ -19,6 +40,26 @@ public class Producer {
     protected final static long MEAN_DELAY = 500;
     protected Actor consumer;
     protected Address myAddress;
+    protected LatencyRecorder recorder;
+    protected Batcher batcher;
+    protected Traffic traffic;
+    protected Codec codec;
+    protected final NavigableSet<Integer> unacked = new ConcurrentSkipListSet<>();
+    
+    // Goods are numbered, batched and sent in one order under this lock
+    protected final Object sending = new Object();
+    protected int nextSeq;
+    protected final AtomicLong acked = new AtomicLong();
+    
+    // Size of the unacked set, which the set itself takes O(n) to count
+    protected final AtomicInteger inFlight = new AtomicInteger();
+    protected volatile int maxInFlight;
+    
+    // Most goods unacked at once, 0 for no limit
+    protected volatile int window;
+    protected final Object credit = new Object();
+    protected final AtomicLong stalls = new AtomicLong();
+    protected final AtomicLong stallTime = new AtomicLong();
 
     /**
      * Entry point for the producer.
@@ -30,7 +71,7 @@ public class Producer {
         Address consumerAddr =
                 Address.newRemoteAddress(Consumer.HOST, Consumer.PORT, Consumer.ID);
         
-        Actor consumerActor = serverTopology.getActor(consumerAddr);
+        Actor consumerActor = Consumer.getActor(consumerAddr);
         
         Producer producer = new Producer(consumerActor);
         
@@ -38,6 +79,17 @@ public class Producer {
                 serverTopology.spawnActor(Producer.ID, producer);
         
         producer.setMyAddress(producerAddr);
+        
+        if(args.length > 2 && args[2].equalsIgnoreCase("compact"))
+            producer.setCodec(new CompactCodec());
+        
+        if(args.length > 3)
+            producer.setWindow(Integer.parseInt(args[3]));
+        
+        if(args.length > 0)
+            producer.setBatching(Integer.parseInt(args[0]), args.length > 1 ? Long.parseLong(args[1]) : 0);
+        
+        producer.produce();
     }
 
     public Producer(Actor consumer) {
@@ -48,19 +100,205 @@ public class Producer {
      * Produce goods
      */    
     public void produce() {
+        produce(10, MEAN_DELAY);
+    }
+    
+    /**
+     * Produces goods, sleeping at random between them.
+     * @param count Number of goods
+     * @param meanDelay Mean milliseconds between goods, 0 for none
+     */
+    public void produce(int count, long meanDelay) {
         Random ran = new Random();
-        for(int i=0; i < 10; i++) {
+        for(int i=0; i < count; i++) {
             try {
-                long delay = Math.abs(ran.nextLong()) % (MEAN_DELAY * 2);
+                if(meanDelay > 0) {
+                    long delay = Math.abs(ran.nextLong()) % (meanDelay * 2);
                 
-                Thread.sleep(delay);
+                    Thread.sleep(delay);
+                }
                 
-                consumer.send(new Good(myAddress));
+                send(new Good(myAddress));
             }
             catch (InterruptedException ex) {
                 
             }
         }
+        
+        flush();
+    }
+    
+    /**
+     * Sends a good to the consumer, in a batch if batching. The good gets
+     * the next sequence number in this producer's send order, which the
+     * Ack of a batch covers up to its last, so any number of threads may
+     * send. If the window is full this waits for credit first.
+     * @param good Good
+     * @throws InterruptedException If interrupted waiting for credit
+     */
+    public void send(Good good) throws InterruptedException {
+        synchronized(sending) {
+            if(window > 0)
+                awaitCredit();
+            
+            good.setSeq(nextSeq++);
+            unacked.add(good.getSeq());
+            
+            int count = inFlight.incrementAndGet();
+            if(count > maxInFlight)
+                maxInFlight = count;
+            
+            if(batcher != null) {
+                batcher.add(good);
+                return;
+            }
+            
+            if(codec == null) {
+                consumer.send(good);
+            
+                if(traffic != null)
+                    traffic.sent(good, 1);
+                
+                return;
+            }
+            
+            try {
+                Packet packet = new Packet(codec.encode(good));
+                
+                consumer.send(packet);
+                
+                if(traffic != null)
+                    traffic.sent(packet, 1);
+            } catch (IOException ex) {
+                System.err.println(ex);
+            }
+        }
+    }
+    
+    /**
+     * Waits until there is room in the window for another good.
+     * @throws InterruptedException If interrupted
+     */
+    protected void awaitCredit() throws InterruptedException {
+        if(inFlight.get() < window)
+            return;
+        
+        // Goods waiting for their batch hold credit too, so send them
+        // or their acks may never come
+        flush();
+        
+        long start = System.nanoTime();
+        
+        synchronized(credit) {
+            while(inFlight.get() >= window)
+                credit.wait();
+        }
+        
+        stalls.incrementAndGet();
+        stallTime.addAndGet(System.nanoTime() - start);
+    }
+    
+    /**
+     * Sends the goods waiting in a batch now.
+     */
+    public void flush() {
+        if(batcher != null)
+            batcher.flush();
+    }
+    
+    /**
+     * Sends goods in batches. Set my address first.
+     * @param size Most goods in a batch, 1 to send each good alone
+     * @param linger Most milliseconds a good waits for its batch to fill
+     */
+    public void setBatching(int size, long linger) {
+        if(batcher != null)
+            batcher.close();
+        
+        batcher = size > 1 ? new Batcher(consumer, myAddress, size, linger, codec, traffic) : null;
+    }
+    
+    /**
+     * Sets the codec to send goods with, or null to let the topology
+     * serialize them. Set it before batching. The consumer answers in
+     * the codec the goods came in.
+     * @param codec Codec
+     */
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+    
+    /**
+     * Sets the traffic to count the goods sent in. Set it before batching.
+     * @param traffic Traffic
+     */
+    public void setTraffic(Traffic traffic) {
+        this.traffic = traffic;
+    }
+    
+    /**
+     * Sets the most goods to send ahead of the consumer's acks, until the
+     * consumer grants a window of its own. Set it before sending to hold
+     * the first goods to the window too.
+     * @param window Number of goods, 0 for no limit
+     */
+    public void setWindow(int window) {
+        if(window < 0)
+            throw new IllegalArgumentException("window must not be negative: "+window);
+        
+        this.window = window;
+        
+        synchronized(credit) {
+            credit.notifyAll();
+        }
+    }
+    
+    /**
+     * Gets the most goods the producer may send ahead of the acks.
+     * @return Number of goods, 0 for no limit
+     */
+    public int getWindow() {
+        return window;
+    }
+    
+    /**
+     * Gets the most goods that were ever unacknowledged at once.
+     * @return Count
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+    
+    /**
+     * Gets the number of times send waited for credit.
+     * @return Count
+     */
+    public long getStalls() {
+        return stalls.get();
+    }
+    
+    /**
+     * Gets the time send spent waiting for credit.
+     * @return Nanoseconds
+     */
+    public long getStallTime() {
+        return stallTime.get();
+    }
+    
+    /**
+     * Gets the number of goods the consumer has acknowledged.
+     * @return Count
+     */
+    public long getAcked() {
+        return acked.get();
+    }
+    
+    /**
+     * Gets the number of goods sent but not acknowledged yet.
+     * @return Count
+     */
+    public int getUnacked() {
+        return inFlight.get();
     }
     
     /**
@@ -71,12 +309,71 @@ public class Producer {
         this.myAddress = address;
     }
     
+    /**
+     * Sets a recorder to count acknowledgments instead of printing them.
+     * @param recorder Recorder
+     */
+    public void setRecorder(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    /**
+     * Processes an acknowledgment sent with a codec.
+     * @param packet Packet holding the Ack
+     */
+    @OnMessage(type = Packet.class)
+    public void onReceive(Packet packet) {
+        try {
+            onReceive((Ack) getCodec().decode(packet.getBytes()));
+        } catch (IOException ex) {
+            System.err.println(ex);
+        }
+    }
+    
+    protected synchronized Codec getCodec() {
+        if(codec == null)
+            codec = new CompactCodec();
+        
+        return codec;
+    }
+    
     /**
      * Processes an acknowledgment.
      * @param ack Ack message
      */    
     @OnMessage(type = Ack.class)
     public void onReceive(Ack ack) {
-        System.out.println("received "+ack);
+        int count = 0;
+        
+        if(!ack.isCumulative())
+            count = unacked.remove(ack.getId()) ? 1 : 0;
+        else {
+            // Every good sent up to the sequence number is acknowledged
+            Integer seq;
+            while((seq = unacked.pollFirst()) != null) {
+                if(seq > ack.getId()) {
+                    unacked.add(seq);
+                    break;
+                }
+                count++;
+            }
+        }
+        
+        acked.addAndGet(count);
+        inFlight.addAndGet(-count);
+        
+        if(ack.getCredits() > 0)
+            window = ack.getCredits();
+        
+        synchronized(credit) {
+            credit.notifyAll();
+        }
+        
+        if(recorder != null) {
+            for(int i=0; i < count; i++)
+                recorder.acked();
+        }
+        else
+            System.out.println("received "+ack);
     }
 }
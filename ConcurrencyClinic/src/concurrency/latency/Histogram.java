@@ -0,0 +1,160 @@
+package concurrency.latency;
+
+import java.util.Arrays;
+
+/**
+ * This class counts latencies in nanoseconds, from 0 to about 18 minutes,
+ * to within 0.1%.
+ *
+ * Values under 2048 get a bucket each. Above that each power of two is cut
+ * into 1024 buckets, so a bucket is never wider than a thousandth of the
+ * values in it and the whole range fits in 31744 counts. Recording is O(1)
+ * and allocates nothing.
+ *
+ * A histogram isn't thread safe. Each recording thread keeps its own and
+ * they are merged with add() to report.
+ *
+ * Latency measured from when a request was sent rather than when it was
+ * meant to be sent hides the wait of requests that a stall held back, i.e.
+ * coordinated omission. Either measure from the intended time or give
+ * recordValueWithExpectedInterval() the interval the requests were meant
+ * to come at, and it fills in the requests the stall held back.
+ * @author Ron Coleman
+ */
+public class Histogram {
+    protected final static int SUB_BUCKET_BITS = 11;
+    protected final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    protected final static int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    protected final static int MAX_BITS = 40;
+
+    /** Highest value counted, larger values are counted as this */
+    public final static long MAX_VALUE = (1L << MAX_BITS) - 1;
+
+    protected final long[] counts = new long[index(MAX_VALUE) + 1];
+    protected long totalCount;
+    protected long total;
+    protected long min = Long.MAX_VALUE;
+    protected long max;
+
+    /**
+     * Records a value.
+     * @param value Value in nanoseconds
+     */
+    public void recordValue(long value) {
+        value = Math.max(0, Math.min(value, MAX_VALUE));
+
+        counts[index(value)]++;
+        totalCount++;
+        total += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Records a value and, if it is longer than the expected interval, the
+     * values the requests held back behind it would have had.
+     * @param value Value in nanoseconds
+     * @param expectedInterval Nanoseconds expected between requests, 0 for none
+     */
+    public void recordValueWithExpectedInterval(long value, long expectedInterval) {
+        recordValue(value);
+
+        if(expectedInterval <= 0)
+            return;
+
+        for(long missing = value - expectedInterval; missing >= expectedInterval; missing -= expectedInterval)
+            recordValue(missing);
+    }
+
+    /**
+     * Adds the counts of another histogram to this one.
+     * @param other Histogram
+     */
+    public void add(Histogram other) {
+        for(int i=0; i < counts.length; i++)
+            counts[i] += other.counts[i];
+
+        totalCount += other.totalCount;
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Gets the value at a percentile.
+     * @param percentile Percentile, e.g. 99.9
+     * @return Highest value in the bucket holding the percentile, or 0 if empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if(totalCount == 0)
+            return 0;
+
+        long countAt = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * totalCount));
+
+        long seen = 0;
+        for(int i=0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= countAt)
+                return Math.min(highestValue(i), max);
+        }
+
+        return max;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) total / totalCount;
+    }
+
+    /**
+     * Clears the counts.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Gets the bucket of a value.
+     * @param value Value from 0 to MAX_VALUE
+     * @return Index
+     */
+    protected static int index(long value) {
+        if(value < SUB_BUCKETS)
+            return (int) value;
+
+        // Shift the value down until it is one of the upper sub-buckets
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int) ((value >>> shift) - HALF_SUB_BUCKETS);
+    }
+
+    /**
+     * Gets the highest value that goes in a bucket.
+     * @param index Index
+     * @return Value
+     */
+    protected static long highestValue(int index) {
+        if(index < SUB_BUCKETS)
+            return index;
+
+        int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,275 @@
+package concurrency.latency;
+
+import com.googlecode.actorom.Actor;
+import com.googlecode.actorom.Address;
+import com.googlecode.actorom.Topology;
+import com.googlecode.actorom.local.LocalTopology;
+import com.googlecode.actorom.remote.ServerTopology;
+import concurrency.sync.Good;
+import concurrency.sync.MySyncThread1;
+import concurrency.sync.MySyncThread2;
+import concurrency.sync.MySyncThread3;
+import concurrency.sync.RingBuffer;
+import concurrency.sync.WaitStrategy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class offers goods at a fixed rate to each of the demos and reports
+ * how long the goods waited to be consumed, at p50, p99, p99.9 and max.
+ * The variants are:
+ *      sync1, sync2, sync3     MySyncThread1, 2 and 3, e.g. sync3:spinning
+ *                              to hand over on a RingBuffer
+ *      local                   The actors of concurrency.actor.local.Main
+ *      remote                  The remote Producer and Consumer, both in
+ *                              this JVM so their clocks agree, e.g.
+ *                              remote:32 to send in batches of 32
+ * Paced producers stand in for the demos' own, which sleep at random, and
+ * the consumers, sync and actor alike, process a good in the given mean
+ * milliseconds, 0 by default. The service latency reported is that work.
+ *
+ * Goods still unconsumed when the run drains are recorded with their wait
+ * so far. The queues are first in first out, so they are taken to be the
+ * last ones offered.
+ *
+ * Usage: LatencyHarness [variants, e.g. sync2,local] [goods/sec] [seconds]
+ *          [producers] [service ms]
+ * @author Ron Coleman
+ */
+public class LatencyHarness {
+    protected final static String VARIANTS = "sync1,sync2,sync3,local,remote";
+    protected final static int RATE = 1000;
+    protected final static int SECONDS = 10;
+    protected final static long DRAIN_TIME = 5000;
+    protected final static long LINGER = 5;
+
+    protected final int rate;
+    protected final int seconds;
+    protected final int producers;
+    protected final long service;
+
+    public static void main(String[] args) throws InterruptedException {
+        String variants = args.length > 0 ? args[0] : VARIANTS;
+
+        LatencyHarness harness = new LatencyHarness(
+                args.length > 1 ? Integer.parseInt(args[1]) : RATE,
+                args.length > 2 ? Integer.parseInt(args[2]) : SECONDS,
+                args.length > 3 ? Integer.parseInt(args[3]) : 1,
+                args.length > 4 ? Long.parseLong(args[4]) : 0);
+
+        System.out.println(harness.rate+" goods/sec for "+harness.seconds+" sec from "+
+                harness.producers+" producers, "+harness.service+" ms mean service");
+
+        for(String variant : variants.split(","))
+            harness.run(variant.trim()).report(System.out, variant);
+
+        System.exit(0);
+    }
+
+    /**
+     * Constructor
+     * @param rate Goods offered per second
+     * @param seconds How long to offer them
+     * @param producers Number of producer threads
+     * @param service Mean milliseconds the consumers take per good
+     */
+    public LatencyHarness(int rate, int seconds, int producers, long service) {
+        this.rate = rate;
+        this.seconds = seconds;
+        this.producers = producers;
+        this.service = service;
+    }
+
+    /**
+     * Runs a variant.
+     * @param variant Variant, e.g. sync3:spinning
+     * @return Recorder of the run
+     * @throws InterruptedException If interrupted
+     */
+    public LatencyRecorder run(String variant) throws InterruptedException {
+        final LatencyRecorder recorder = new LatencyRecorder();
+        final Target target = open(variant, recorder);
+
+        final long total = (long) rate * seconds;
+        final long spacing = TimeUnit.SECONDS.toNanos(1) / rate;
+        final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+
+        // Producers take turns so together they offer the rate
+        List<Thread> threads = new ArrayList<>();
+        for(int p=0; p < producers; p++) {
+            final Pacer pacer = new Pacer(start + p * spacing, spacing * producers);
+            final long count = total / producers + (p < total % producers ? 1 : 0);
+
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while(pacer.getCount() < count)
+                            target.send(pacer.next());
+                    } catch (InterruptedException ex) {
+                        System.err.println(ex);
+                    }
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        for(Thread thread : threads)
+            thread.join();
+
+        long deadline = System.currentTimeMillis() + DRAIN_TIME;
+        while(recorder.getCount() < total && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+
+        long now = System.nanoTime();
+        for(long n = total - recorder.getCount(); n > 0; n--)
+            recorder.unfinished(start + (total - n) * spacing, now);
+
+        target.stop();
+
+        return recorder;
+    }
+
+    /**
+     * Starts the consumer of a variant.
+     * @param variant Variant
+     * @param recorder Recorder for the consumer
+     * @return Target to send goods to
+     */
+    protected Target open(String variant, LatencyRecorder recorder) {
+        String[] parts = variant.split(":");
+
+        RingBuffer<Good> ring = parts.length > 1 && parts[0].startsWith("sync") ?
+                new RingBuffer<Good>(1024, producers > 1, WaitStrategy.find(parts[1])) : null;
+
+        switch(parts[0]) {
+            case "sync1":
+                final MySyncThread1 sync1 = new MySyncThread1(ring);
+                sync1.setRecorder(recorder);
+                sync1.setService(service);
+                startDaemon(sync1);
+
+                return new Target() {
+                    @Override
+                    public void send(long intended) {
+                        sync1.put(new Good(intended));
+                    }
+                };
+
+            case "sync2":
+                final MySyncThread2 sync2 = new MySyncThread2(ring);
+                sync2.setRecorder(recorder);
+                sync2.setService(service);
+                startDaemon(sync2);
+
+                return new Target() {
+                    @Override
+                    public void send(long intended) {
+                        sync2.put(new Good(intended));
+                    }
+                };
+
+            case "sync3":
+                final MySyncThread3 sync3 = new MySyncThread3(ring);
+                sync3.setRecorder(recorder);
+                sync3.setService(service);
+                startDaemon(sync3);
+
+                return new Target() {
+                    @Override
+                    public void send(long intended) {
+                        sync3.put(new Good(intended));
+                    }
+                };
+
+            case "local":
+                return openLocal(recorder);
+
+            case "remote":
+                return openRemote(recorder, parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+
+            default:
+                throw new IllegalArgumentException("unknown variant: "+variant);
+        }
+    }
+
+    protected Target openLocal(LatencyRecorder recorder) {
+        final Topology topology = new LocalTopology("latency");
+
+        concurrency.actor.local.Consumer consumer = new concurrency.actor.local.Consumer(service);
+        consumer.setRecorder(recorder);
+
+        final Actor consumerActor = topology.getActor(topology.spawnActor(concurrency.actor.local.Consumer.ID, consumer));
+
+        concurrency.actor.local.Producer producer = new concurrency.actor.local.Producer(consumerActor);
+        final Address producerAddr = topology.spawnActor(concurrency.actor.local.Producer.ID, producer);
+        producer.setMyAddress(producerAddr);
+
+        return new Target() {
+            @Override
+            public void send(long intended) {
+                consumerActor.send(new concurrency.actor.Good(producerAddr, intended));
+            }
+
+            @Override
+            public void stop() {
+                topology.shutdown();
+            }
+        };
+    }
+
+    protected Target openRemote(LatencyRecorder recorder, int batchSize) {
+        final ServerTopology consumerTopology = concurrency.actor.remote.Consumer.getTopology();
+
+        concurrency.actor.remote.Consumer consumer = new concurrency.actor.remote.Consumer(service);
+        consumer.setRecorder(recorder);
+        consumerTopology.spawnActor(concurrency.actor.remote.Consumer.ID, consumer);
+
+        final ServerTopology producerTopology =
+                new ServerTopology(concurrency.actor.remote.Producer.HOST, concurrency.actor.remote.Producer.PORT);
+
+        final Actor consumerActor = concurrency.actor.remote.Consumer.getActor(Address.newRemoteAddress(
+                concurrency.actor.remote.Consumer.HOST, concurrency.actor.remote.Consumer.PORT,
+                concurrency.actor.remote.Consumer.ID));
+
+        final concurrency.actor.remote.Producer producer = new concurrency.actor.remote.Producer(consumerActor);
+        producer.setRecorder(recorder);
+
+        final Address producerAddr = producerTopology.spawnActor(concurrency.actor.remote.Producer.ID, producer);
+        producer.setMyAddress(producerAddr);
+        producer.setBatching(batchSize, LINGER);
+
+        return new Target() {
+            @Override
+            public void send(long intended) throws InterruptedException {
+                producer.send(new concurrency.actor.Good(producerAddr, intended));
+            }
+
+            @Override
+            public void stop() {
+                producer.setBatching(1, 0);
+                producerTopology.shutdown();
+                consumerTopology.shutdown();
+            }
+        };
+    }
+
+    protected static void startDaemon(Runnable consumer) {
+        Thread thread = new Thread(consumer);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * This class is where a variant's producers send goods.
+     */
+    protected static abstract class Target {
+        public abstract void send(long intended) throws InterruptedException;
+
+        public void stop() {
+        }
+    }
+}
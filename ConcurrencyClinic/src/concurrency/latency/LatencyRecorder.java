@@ -0,0 +1,120 @@
+package concurrency.latency;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class records how long goods wait to be consumed and how long they
+ * take to consume.
+ *      Queueing latency runs from when a good was meant to be produced to
+ *          when a consumer took it. Since it starts at the intended time
+ *          rather than when the producer got around to it, a stalled
+ *          producer doesn't hide the wait of the goods behind the stall.
+ *      Service latency runs from when the consumer took the good to when
+ *          it was done with it.
+ * Each consumer thread records into histograms of its own, which are
+ * merged to report, so consumers never contend for the recorder.
+ * @author Ron Coleman
+ */
+public class LatencyRecorder {
+    protected final List<Histogram[]> histograms = new CopyOnWriteArrayList<>();
+    protected final ThreadLocal<Histogram[]> mine = new ThreadLocal<Histogram[]>() {
+        @Override
+        protected Histogram[] initialValue() {
+            Histogram[] pair = { new Histogram(), new Histogram() };
+            histograms.add(pair);
+            return pair;
+        }
+    };
+    protected final AtomicLong recorded = new AtomicLong();
+    protected final AtomicLong acked = new AtomicLong();
+    protected long unfinished;
+
+    /**
+     * Records a consumed good.
+     * @param intended When the good was meant to be produced, in System.nanoTime()
+     * @param taken When the consumer took it
+     * @param done When the consumer was done with it
+     */
+    public void record(long intended, long taken, long done) {
+        Histogram[] pair = mine.get();
+
+        pair[0].recordValue(taken - intended);
+        pair[1].recordValue(done - taken);
+
+        // Publishes the counts to the thread that reports
+        recorded.incrementAndGet();
+    }
+
+    /**
+     * Records a good that still hadn't been consumed when the run ended,
+     * with its queueing latency so far.
+     * @param intended When the good was meant to be produced
+     * @param now When the run ended
+     */
+    public void unfinished(long intended, long now) {
+        mine.get()[0].recordValue(now - intended);
+        unfinished++;
+        recorded.incrementAndGet();
+    }
+
+    /**
+     * Counts an acknowledgment the producer got back.
+     */
+    public void acked() {
+        acked.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of goods recorded, consumed or not.
+     * @return Count
+     */
+    public long getCount() {
+        return recorded.get();
+    }
+
+    public long getAcked() {
+        return acked.get();
+    }
+
+    /**
+     * Merges the histograms of every consumer thread.
+     * @return Queueing and service latency histograms
+     */
+    public Histogram[] merge() {
+        recorded.get();
+
+        Histogram[] merged = { new Histogram(), new Histogram() };
+        for(Histogram[] pair : histograms) {
+            merged[0].add(pair[0]);
+            merged[1].add(pair[1]);
+        }
+
+        return merged;
+    }
+
+    /**
+     * Prints the percentiles of a run, in milliseconds.
+     * @param out Where to print
+     * @param name Name of the run
+     */
+    public void report(PrintStream out, String name) {
+        Histogram[] merged = merge();
+
+        out.printf("%-16s %8d goods %6d unfinished %8d acked%n",
+                name, merged[0].getTotalCount(), unfinished, getAcked());
+
+        report(out, "queueing", merged[0]);
+        report(out, "service", merged[1]);
+    }
+
+    protected void report(PrintStream out, String what, Histogram histogram) {
+        out.printf("  %-10s p50 %10.3f  p99 %10.3f  p99.9 %10.3f  max %10.3f ms%n", what,
+                histogram.getValueAtPercentile(50) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6,
+                histogram.getMax() / 1e6);
+    }
+}
@@ -0,0 +1,58 @@
+package concurrency.latency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class paces a producer at a fixed rate. The n-th good is meant to
+ * go at start + n * interval whether or not the ones before it went on
+ * time, so a producer that falls behind catches up instead of quietly
+ * lowering the rate.
+ * @author Ron Coleman
+ */
+public class Pacer {
+    protected final long start;
+    protected final long interval;
+    protected long count;
+
+    /**
+     * Constructor
+     * @param start When the first good is meant to go, in System.nanoTime()
+     * @param interval Nanoseconds between goods
+     */
+    public Pacer(long start, long interval) {
+        this.start = start;
+        this.interval = interval;
+    }
+
+    /**
+     * Waits until the next good is meant to go.
+     * @return When it was meant to go, in System.nanoTime()
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public long next() throws InterruptedException {
+        long intended = start + count++ * interval;
+
+        long left;
+        while((left = intended - System.nanoTime()) > 0) {
+            if(left > TimeUnit.MILLISECONDS.toNanos(2))
+                Thread.sleep(TimeUnit.NANOSECONDS.toMillis(left) - 1);
+            else
+                LockSupport.parkNanos(left);
+        }
+
+        return intended;
+    }
+
+    /**
+     * Gets the number of goods paced so far.
+     * @return Count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+}
@@ -1,22 +1,53 @@
 package concurrency.sync;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * This class is a "good" sent from producer to consumer.
  * @author Ron Coleman
  */
 public class Good {
-    private static int serialno = 0;
+    private static final AtomicInteger serialno = new AtomicInteger();
     
     private final int id;
+    private final long born;
+    private final long intended;
     
     public Good() {
-        this.id = serialno++;
+        this(System.nanoTime());
+    }
+    
+    /**
+     * Constructor
+     * @param intended When the good was meant to be produced, in System.nanoTime()
+     */
+    public Good(long intended) {
+        this.id = serialno.getAndIncrement();
+        this.born = System.nanoTime();
+        this.intended = intended;
     }
 
     public int getId() {
         return id;
     }
     
+    /**
+     * Gets how long ago the good was produced.
+     * @return Age in milliseconds
+     */
+    public double getAge() {
+        return (System.nanoTime() - born) / 1000000.0;
+    }
+    
+    /**
+     * Gets when the good was meant to be produced, which is when it was
+     * produced unless a paced producer fell behind.
+     * @return Time in System.nanoTime()
+     */
+    public long getIntended() {
+        return intended;
+    }
+    
     @Override
     public String toString() {
         return "good id = "+getId();
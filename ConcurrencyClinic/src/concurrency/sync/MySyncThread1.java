@@ -1,6 +1,8 @@
 package concurrency.sync;
 
-import java.util.ArrayList;
+import concurrency.latency.LatencyRecorder;
+import concurrency.thread.ThreadMode;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.logging.Level;
@@ -9,23 +11,56 @@ import java.util.logging.Logger;
 /**
  * This class demonstrates how to synchronize threads that
  * execute a critical region.
+ * Given a WaitStrategy on the command line, e.g. spinning, and a number
+ * of producers, it hands goods over on a RingBuffer instead, or on the
+ * list given "queue". Given "virtual" after those, e.g. queue 4 virtual,
+ * it runs the producers and consumer on virtual threads.
  * @author Ron Coleman
  */
 public class MySyncThread1 implements Runnable {
     protected final static long MEAN_DELAY = 500;
     protected final static long POLL_DUTY_CYCLE_TIME = 1000;
+    protected final static int RING_SIZE = 1024;
     protected final List<Good> queue;
+    protected final RingBuffer<Good> ring;
+    protected LatencyRecorder recorder;
+    protected final Random ran = new Random();
+    protected long meanService;
     
     public static void main(String[] args) {
-        MySyncThread1 myThread = new MySyncThread1();
+        // Give a wait strategy, e.g. spinning, to run on a ring buffer
+        int producers = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        ThreadMode mode = args.length > 2 ? ThreadMode.find(args[2]) : ThreadMode.PLATFORM;
         
-        new Thread(myThread).start();
+        final MySyncThread1 myThread = args.length > 0 && !args[0].equalsIgnoreCase("queue") ?
+                new MySyncThread1(new RingBuffer<Good>(RING_SIZE, producers > 1, WaitStrategy.find(args[0]))) :
+                new MySyncThread1();
+        
+        mode.start(myThread);
+        
+        for(int i=1; i < producers; i++) {
+            mode.start(new Runnable() {
+                @Override
+                public void run() {
+                    myThread.produce();
+                }
+            });
+        }
 
         myThread.produce();
     }
     
     public MySyncThread1() {
-        this.queue = new ArrayList<>( );
+        this(null);
+    }
+    
+    /**
+     * Constructor
+     * @param ring Ring buffer to hand goods over on instead of the queue, or null
+     */
+    public MySyncThread1(RingBuffer<Good> ring) {
+        this.queue = new LinkedList<>( );
+        this.ring = ring;
     }
     
     @Override
@@ -44,26 +79,89 @@ public class MySyncThread1 implements Runnable {
                 System.err.println(ex);
             }
             Good good = new Good();
+            put(good);
+            System.out.println("produced "+good);
+        }
+    }
+    
+    /**
+     * Hands a good over to the consumer.
+     * @param good Good
+     */
+    public void put(Good good) {
+        if(ring != null) {
+            try {
+                ring.put(good);
+            } catch (InterruptedException ex) {
+                System.err.println(ex);
+            }
+        }
+        else {
             synchronized(queue) {
                 queue.add(good);
             }
-            System.out.println("produced "+good);
         }
     }
+
+    /**
+     * Sets a recorder for the latency of each good consumed. Goods are
+     * recorded instead of printed.
+     * @param recorder Recorder
+     */
+    public void setRecorder(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    /**
+     * Sets how long the consumer works on each good, so the service
+     * latency recorded is the time of that work. 0 by default.
+     * @param meanService Mean milliseconds to consume a good
+     */
+    public void setService(long meanService) {
+        this.meanService = meanService;
+    }
     
+    protected void consumed(Good good) {
+        long taken = System.nanoTime();
+        
+        if(meanService > 0) {
+            try {
+                Thread.sleep(Math.abs(ran.nextLong()) % (meanService * 2));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        if(recorder != null)
+            recorder.record(good.getIntended(), taken, System.nanoTime());
+        else
+            System.out.println("consumed "+good+" after "+good.getAge()+" ms");
+    }
+
     public void consume() {
         while(true) {
             try {
+                // The ring buffer hands each good over as soon as it is put
+                if(ring != null) {
+                    Good good = ring.take();
+                    
+                    consumed(good);
+                    continue;
+                }
+                
                 Thread.sleep(POLL_DUTY_CYCLE_TIME);
                 
+                // Only the taking is critical, so producers aren't held up
+                // while the good is consumed
+                Good good;
                 synchronized(queue) {
                     if(queue.isEmpty())
                         continue;
                     
-                    Good good = queue.remove(0);
-                    
-                    System.out.println("consumed "+good);
+                    good = queue.remove(0);
                 }
+                
+                consumed(good);
             } catch (InterruptedException ex) {
                 Logger.getLogger(MySyncThread1.class.getName()).log(Level.SEVERE, null, ex);
             }
@@ -0,0 +1,189 @@
+package concurrency.sync;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is a bounded queue for handing goods from producers to one
+ * consumer without locks.
+ *
+ * The slots are allocated once and reused as the sequence numbers wrap
+ * around, so putting and taking is O(1) and allocates nothing. A producer
+ * claims the next sequence once there is room for it, fills its slot and
+ * then publishes the sequence in the slot. The consumer takes slots in sequence order once they are
+ * published. With one producer the claim is a plain increment; with many
+ * it is an atomic increment.
+ *
+ * Producers waiting for room and the consumer waiting for goods wait the
+ * way the WaitStrategy says.
+ * @author Ron Coleman
+ * @param <E> Type of element
+ */
+public class RingBuffer<E> {
+    protected final Object[] slots;
+    protected final int capacity;
+    protected final int mask;
+    protected final boolean multiProducer;
+
+    /** Sequence published in each slot, -1 until the first one */
+    protected final AtomicLongArray published;
+
+    /** Next sequence for a producer to claim */
+    protected final AtomicLong tail = new AtomicLong();
+
+    /** Next sequence for the consumer to take */
+    protected final AtomicLong head = new AtomicLong();
+
+    protected final WaitStrategy.Waiter notEmpty;
+    protected final WaitStrategy.Waiter notFull;
+
+    /**
+     * Constructor
+     * @param capacity Number of slots, a power of two
+     * @param multiProducer True if more than one thread puts
+     * @param strategy How threads wait
+     */
+    public RingBuffer(int capacity, boolean multiProducer, WaitStrategy strategy) {
+        if(capacity < 1 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two: "+capacity);
+
+        this.slots = new Object[capacity];
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.multiProducer = multiProducer;
+        this.published = new AtomicLongArray(capacity);
+        this.notEmpty = strategy.newWaiter();
+        this.notFull = strategy.newWaiter();
+
+        for(int i=0; i < capacity; i++)
+            published.set(i, -1);
+    }
+
+    /**
+     * Puts an element, waiting for room if the buffer is full. A sequence
+     * is only claimed once there is room for it, so a producer interrupted
+     * while waiting leaves no hole for the consumer to wait on.
+     * @param e Element
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public void put(E e) throws InterruptedException {
+        while(true) {
+            long mark = notFull.mark();
+            if(offer(e))
+                return;
+
+            notFull.await(mark, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Puts an element if there is room.
+     * @param e Element
+     * @return True if the element was put
+     */
+    public boolean offer(E e) {
+        long seq;
+
+        if(multiProducer) {
+            do {
+                seq = tail.get();
+                if(seq - capacity >= head.get())
+                    return false;
+            } while(!tail.compareAndSet(seq, seq + 1));
+        }
+        else {
+            seq = tail.get();
+            if(seq - capacity >= head.get())
+                return false;
+
+            tail.lazySet(seq + 1);
+        }
+
+        publish(seq, e);
+
+        return true;
+    }
+
+    /**
+     * Takes the next element, waiting for one if the buffer is empty.
+     * Only one thread may take.
+     * @return Element
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public E take() throws InterruptedException {
+        return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Takes the next element, waiting a while for one if the buffer is empty.
+     * Only one thread may take.
+     * @param timeout How long to wait
+     * @param unit Unit of the timeout
+     * @return Element or null if none came in time
+     * @throws InterruptedException If interrupted while waiting
+     */
+    @SuppressWarnings("unchecked")
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long seq = head.get();
+        int index = (int) seq & mask;
+
+        long nanos = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + nanos;
+
+        while(true) {
+            long mark = notEmpty.mark();
+            if(published.get(index) == seq)
+                break;
+
+            if(nanos <= 0)
+                return null;
+
+            notEmpty.await(mark, nanos);
+
+            if(nanos != Long.MAX_VALUE)
+                nanos = deadline - System.nanoTime();
+        }
+
+        E e = (E) slots[index];
+        slots[index] = null;
+
+        head.lazySet(seq + 1);
+        notFull.signal();
+
+        return e;
+    }
+
+    /**
+     * Takes the next element if there is one. Only one thread may take.
+     * @return Element or null if the buffer is empty
+     */
+    public E poll() {
+        try {
+            return poll(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of elements claimed but not yet taken.
+     * @return Size
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private void publish(long seq, E e) {
+        int index = (int) seq & mask;
+
+        slots[index] = e;
+        published.lazySet(index, seq);
+        notEmpty.signal();
+    }
+}
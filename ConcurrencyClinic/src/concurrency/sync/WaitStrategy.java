@@ -0,0 +1,162 @@
+package concurrency.sync;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class enumerates how a thread waits on a RingBuffer for a good
+ * or for room to put one.
+ *      BLOCKING sleeps on a lock condition until it is signaled.
+ *      SPINNING burns the CPU checking again, yielding now and then.
+ *      PARKING naps for a few microseconds between checks.
+ * Blocking costs the least CPU, spinning hands over the fastest and
+ * parking is in between.
+ * @author Ron Coleman
+ */
+public enum WaitStrategy {
+    BLOCKING {
+        @Override
+        public Waiter newWaiter() {
+            return new Blocking();
+        }
+    },
+    SPINNING {
+        @Override
+        public Waiter newWaiter() {
+            return new Spinning();
+        }
+    },
+    PARKING {
+        @Override
+        public Waiter newWaiter() {
+            return new Parking();
+        }
+    };
+
+    protected final static int SPINS_PER_YIELD = 1000;
+    protected final static long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Makes a waiter for one thing to wait on, e.g. a buffer not being empty.
+     * @return Waiter
+     */
+    public abstract Waiter newWaiter();
+
+    /**
+     * Finds a strategy by name, e.g. "spinning".
+     * @param name Name
+     * @return Strategy, BLOCKING if the name is unknown
+     */
+    public static WaitStrategy find(String name) {
+        for(WaitStrategy strategy : values()) {
+            if(strategy.name().equalsIgnoreCase(name))
+                return strategy;
+        }
+
+        return BLOCKING;
+    }
+
+    /**
+     * This class waits for something to change. A waiter marks what it
+     * has seen, checks, and if the check fails awaits a change since the
+     * mark, so a signal between the check and the wait is not lost.
+     */
+    public static abstract class Waiter {
+        /**
+         * Marks the changes seen so far, before checking.
+         * @return Mark
+         */
+        public long mark() {
+            return 0;
+        }
+
+        /**
+         * Waits for a change since the mark, or for a while. The caller
+         * checks again either way.
+         * @param mark Mark from before the check
+         * @param nanos Most nanoseconds to wait
+         * @throws InterruptedException If interrupted
+         */
+        public abstract void await(long mark, long nanos) throws InterruptedException;
+
+        /**
+         * Signals a change to waiting threads.
+         */
+        public void signal() {
+        }
+    }
+
+    protected static class Blocking extends Waiter {
+        protected final ReentrantLock lock = new ReentrantLock();
+        protected final Condition changed = lock.newCondition();
+        protected final AtomicLong changes = new AtomicLong();
+        protected final AtomicInteger waiters = new AtomicInteger();
+
+        @Override
+        public long mark() {
+            return changes.get();
+        }
+
+        @Override
+        public void await(long mark, long nanos) throws InterruptedException {
+            lock.lock();
+            try {
+                waiters.incrementAndGet();
+                try {
+                    while(changes.get() == mark && nanos > 0)
+                        nanos = changed.awaitNanos(nanos);
+                }
+                finally {
+                    waiters.decrementAndGet();
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void signal() {
+            changes.incrementAndGet();
+
+            // Only take the lock if someone is asleep on it
+            if(waiters.get() == 0)
+                return;
+
+            lock.lock();
+            try {
+                changed.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    protected static class Spinning extends Waiter {
+        protected int spins;
+
+        @Override
+        public void await(long mark, long nanos) throws InterruptedException {
+            if(++spins % SPINS_PER_YIELD == 0)
+                Thread.yield();
+
+            if(Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    protected static class Parking extends Waiter {
+        @Override
+        public void await(long mark, long nanos) throws InterruptedException {
+            LockSupport.parkNanos(Math.min(nanos, PARK_NANOS));
+
+            if(Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+}
@@ -2,20 +2,27 @@ package concurrency.thread;
 
 /**
  * This class demonstrates how to start and stop an anonymous Runnable
+ * Given "virtual" on the command line it runs on a virtual thread instead.
  * @author Ron Coleman
  */
 public class MyAnonRunnable {
-    public static void main(String[] args) {
-        new Thread(new Runnable() {
+    public static void main(String[] args) throws InterruptedException {
+        ThreadMode mode = args.length > 0 ? ThreadMode.find(args[0]) : ThreadMode.PLATFORM;
+        
+        Thread thread = mode.start(new Runnable() {
             @Override
             public void run() {
                 System.out.println("in my runnable...");
             }
         }
-        ).start();
+        );
        
         int hyperthreads = Runtime.getRuntime().availableProcessors();
         
         System.out.println("in main hyperthreads  = "+hyperthreads);        
+
+        // Virtual threads are daemons, so wait or the JVM may exit first
+        if(mode == ThreadMode.VIRTUAL)
+            thread.join();
     }    
 }
@@ -2,6 +2,7 @@ package concurrency.thread;
 
 /**
  * This class demonstrates how to start a thread with a Runnable.
+ * Given "virtual" on the command line it runs on a virtual thread instead.
  * @author roncoleman125
  */
 public class MyRunnable implements Runnable {
@@ -10,12 +11,18 @@ public class MyRunnable implements Runnable {
         System.out.println("in my runnable...");
     }
     
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
+        ThreadMode mode = args.length > 0 ? ThreadMode.find(args[0]) : ThreadMode.PLATFORM;
+        
         MyRunnable myRunnable = new MyRunnable();
-        new Thread(myRunnable).start();
+        Thread thread = mode.start(myRunnable);
        
         int hyperthreads = Runtime.getRuntime().availableProcessors();
         
         System.out.println("in main hyperthreads  = "+hyperthreads);        
+
+        // Virtual threads are daemons, so wait or the JVM may exit first
+        if(mode == ThreadMode.VIRTUAL)
+            thread.join();
     }
 }
@@ -2,6 +2,7 @@ package concurrency.thread;
 
 /**
  * This class demonstrates how to start and stop a thread.
+ * Given "virtual" on the command line it runs on a virtual thread instead.
  * @author Ron Coleman
  */
 public class MyThread extends Thread {
@@ -10,12 +11,22 @@ public class MyThread extends Thread {
         System.out.println("in my thread...");
     }
     
-    public static void main(String[] args) {       
+    public static void main(String[] args) throws InterruptedException {       
+        ThreadMode mode = args.length > 0 ? ThreadMode.find(args[0]) : ThreadMode.PLATFORM;
+        
         MyThread myThread = new MyThread();
-        myThread.start();
+        Thread thread = myThread;
+        if(mode == ThreadMode.PLATFORM)
+            myThread.start();
+        else
+            thread = mode.start(myThread);
         
         int hyperthreads = Runtime.getRuntime().availableProcessors();
         
         System.out.println("in main hyperthreads  = "+hyperthreads);        
+
+        // Virtual threads are daemons, so wait or the JVM may exit first
+        if(mode == ThreadMode.VIRTUAL)
+            thread.join();
     }
 }
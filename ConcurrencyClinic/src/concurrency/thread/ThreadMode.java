@@ -0,0 +1,77 @@
+package concurrency.thread;
+
+import java.lang.reflect.Method;
+
+/**
+ * This class enumerates the kinds of thread the demos can run tasks on.
+ *      PLATFORM is a thread of the operating system, the way the demos
+ *          have always run.
+ *      VIRTUAL is a thread the JVM schedules over a few platform threads,
+ *          which unmounts while it blocks, so one can be had per task even
+ *          for hundreds of thousands of tasks. It needs Java 21 or later
+ *          and is started by reflection so the demos still build for Java 7.
+ * @author Ron Coleman
+ */
+public enum ThreadMode {
+    PLATFORM {
+        @Override
+        public Thread start(Runnable task) {
+            Thread thread = new Thread(task);
+            thread.start();
+            return thread;
+        }
+    },
+    VIRTUAL {
+        @Override
+        public Thread start(Runnable task) {
+            if(START_VIRTUAL == null)
+                throw new UnsupportedOperationException("virtual threads need Java 21, not "+System.getProperty("java.version"));
+
+            try {
+                return (Thread) START_VIRTUAL.invoke(null, task);
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    };
+
+    /** Thread.startVirtualThread(Runnable), or null before Java 21 */
+    protected final static Method START_VIRTUAL = findStartVirtual();
+
+    /**
+     * Starts a task on a thread of this kind.
+     * @param task Task
+     * @return Thread
+     */
+    public abstract Thread start(Runnable task);
+
+    /**
+     * Tests if this JVM has this kind of thread.
+     * @return True if it does
+     */
+    public boolean isSupported() {
+        return this == PLATFORM || START_VIRTUAL != null;
+    }
+
+    /**
+     * Finds a mode by name, e.g. "virtual".
+     * @param name Name
+     * @return Mode, PLATFORM if the name is unknown
+     */
+    public static ThreadMode find(String name) {
+        for(ThreadMode mode : values()) {
+            if(mode.name().equalsIgnoreCase(name))
+                return mode;
+        }
+
+        return PLATFORM;
+    }
+
+    private static Method findStartVirtual() {
+        try {
+            return Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+}
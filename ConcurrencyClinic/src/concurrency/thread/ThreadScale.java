@@ -0,0 +1,353 @@
+package concurrency.thread;
+
+import concurrency.sync.Good;
+import concurrency.sync.MySyncThread1;
+import concurrency.sync.MySyncThread2;
+import concurrency.sync.MySyncThread3;
+import concurrency.sync.RingBuffer;
+import concurrency.sync.WaitStrategy;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class runs many producer and consumer pairs of the sync demos at
+ * once, a thread per producer and per consumer, on platform threads and
+ * then on virtual threads. For each it reports
+ *      startup     how long until every task was running
+ *      memory      heap and resident memory per task while they all wait
+ *      throughput  goods consumed per second
+ * Each mode runs in a JVM of its own so one doesn't skew the other.
+ *
+ * Before Java 24 a virtual thread that blocks inside a synchronized block
+ * can't unmount, so it pins the platform thread carrying it. In virtual
+ * mode the harness reports pinning two ways:
+ *      carriers    the most carrier threads the run needed. A virtual
+ *                  thread in Object.wait holds its carrier and the
+ *                  scheduler adds one to make up, so well over one
+ *                  carrier per unit of the scheduler's parallelism means
+ *                  tasks were pinned. The scheduler starts the odd spare
+ *                  anyway, so up to twice the parallelism isn't flagged.
+ *      pinned at   where a virtual thread parked, e.g. in sleep or on a
+ *                  lock, holding a monitor, as -Djdk.tracePinnedThreads
+ *                  reports it. The JVM doesn't trace Object.wait, and Java
+ *                  24 dropped the property along with the pinning.
+ * The property is set on the JVM forked for virtual mode; give it by hand
+ * when running a mode directly.
+ *
+ * Usage: ThreadScale [pairs] [workload, e.g. sync3 or sync3:blocking]
+ *          [goods per producer] [mean delay ms] [platform|virtual]
+ * Without a mode it compares both.
+ * @author Ron Coleman
+ */
+public class ThreadScale {
+    protected final static int PAIRS = 10000;
+    protected final static String WORKLOAD = "sync3";
+    protected final static int GOODS = 10;
+    protected final static long MEAN_DELAY = 100;
+    protected final static int RING_SIZE = 16;
+    protected final static long DRAIN_TIME = 60000;
+
+    protected final int pairs;
+    protected final String workload;
+    protected final int goods;
+    protected final long meanDelay;
+    protected final AtomicLong consumed = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        ThreadScale scale = new ThreadScale(
+                args.length > 0 ? Integer.parseInt(args[0]) : PAIRS,
+                args.length > 1 ? args[1] : WORKLOAD,
+                args.length > 2 ? Integer.parseInt(args[2]) : GOODS,
+                args.length > 3 ? Long.parseLong(args[3]) : MEAN_DELAY);
+
+        if(args.length > 4) {
+            scale.run(ThreadMode.find(args[4]));
+            System.exit(0);
+        }
+
+        System.out.println(scale.pairs+" pairs of "+scale.workload+", "+scale.goods+
+                " goods each, "+scale.meanDelay+" ms mean delay, Java "+System.getProperty("java.version"));
+
+        for(ThreadMode mode : ThreadMode.values())
+            scale.fork(mode);
+    }
+
+    /**
+     * Constructor
+     * @param pairs Number of producer and consumer pairs
+     * @param workload Demo, e.g. sync3, with a WaitStrategy to use a ring
+     * @param goods Goods each producer produces
+     * @param meanDelay Mean milliseconds a producer sleeps between goods
+     */
+    public ThreadScale(int pairs, String workload, int goods, long meanDelay) {
+        this.pairs = pairs;
+        this.workload = workload;
+        this.goods = goods;
+        this.meanDelay = meanDelay;
+    }
+
+    /**
+     * Runs a mode in a JVM of its own.
+     * @param mode Mode
+     * @throws IOException If the JVM can't start
+     * @throws InterruptedException If interrupted
+     */
+    protected void fork(ThreadMode mode) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        List<String> command = new ArrayList<>(Arrays.asList(java, "-cp", System.getProperty("java.class.path"),
+                ThreadScale.class.getName(), ""+pairs, workload, ""+goods, ""+meanDelay, mode.name()));
+
+        if(mode == ThreadMode.VIRTUAL)
+            command.add(1, "-Djdk.tracePinnedThreads=short");
+
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        // Pick the frames holding monitors out of the pinned thread traces
+        Set<String> pinned = new LinkedHashSet<>();
+        try(BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while((line = in.readLine()) != null) {
+                if(line.contains("<== monitors"))
+                    pinned.add(line.trim().replaceAll(" <== .*", ""));
+                else if(!line.startsWith("Thread[") && !line.matches(" {4}\\S.*\\)"))
+                    System.out.println(line);
+            }
+        }
+
+        process.waitFor();
+
+        for(String frame : pinned)
+            System.out.println("         pinned at "+frame);
+    }
+
+    /**
+     * Runs the pairs on a mode of thread in this JVM.
+     * @param mode Mode
+     * @throws InterruptedException If interrupted
+     */
+    public void run(ThreadMode mode) throws InterruptedException {
+        if(!mode.isSupported()) {
+            System.out.printf("%-8s not supported on Java %s%n", mode, System.getProperty("java.version"));
+            return;
+        }
+
+        long heapBefore = usedHeap();
+        long rssBefore = residentMemory();
+
+        final CountDownLatch running = new CountDownLatch(pairs * 2);
+        long start = System.nanoTime();
+
+        int tasks = 0;
+        try {
+            for(int i=0; i < pairs; i++) {
+                final Pair pair = open();
+
+                mode.start(new Runnable() {
+                    @Override
+                    public void run() {
+                        running.countDown();
+                        pair.consumer.run();
+                    }
+                });
+                tasks++;
+
+                mode.start(new Runnable() {
+                    @Override
+                    public void run() {
+                        running.countDown();
+                        produce(pair);
+                    }
+                });
+                tasks++;
+            }
+        } catch (OutOfMemoryError err) {
+            // Platform threads run out long before virtual ones do
+            System.out.printf("%-8s started only %d tasks: %s%n", mode, tasks, err.getMessage());
+        }
+
+        for(int i=tasks; i < pairs * 2; i++)
+            running.countDown();
+
+        running.await();
+        double startup = (System.nanoTime() - start) / 1e6;
+
+        long heap = usedHeap() - heapBefore;
+        long rss = residentMemory() - rssBefore;
+
+        long total = (long) (tasks / 2) * goods;
+        long deadline = System.currentTimeMillis() + DRAIN_TIME + goods * meanDelay * 2;
+        int carriers = carriers();
+        while(consumed.get() < total && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            carriers = Math.max(carriers, carriers());
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-8s %7d tasks  startup %9.1f ms  heap %7.0f B/task  rss %7s  %9.0f goods/sec  %d of %d consumed%n",
+                mode, tasks, startup, (double) heap / Math.max(1, tasks),
+                rssBefore < 0 ? "n/a" : String.format("%.0f B/task", (double) rss / Math.max(1, tasks)),
+                consumed.get() / seconds, consumed.get(), total);
+
+        if(mode == ThreadMode.VIRTUAL)
+            reportCarriers(carriers);
+    }
+
+    /**
+     * Produces goods the way the demos do, sleeping at random between them.
+     * @param pair Pair to produce for
+     */
+    protected void produce(Pair pair) {
+        Random ran = new Random();
+        for(int i=0; i < goods; i++) {
+            try {
+                Thread.sleep(Math.abs(ran.nextLong()) % (meanDelay * 2 + 1));
+            } catch (InterruptedException ex) {
+                return;
+            }
+
+            pair.put(new Good());
+        }
+    }
+
+    /**
+     * Opens a pair of the workload that counts what it consumes quietly.
+     * @return Pair
+     */
+    protected Pair open() {
+        String[] parts = workload.split(":");
+
+        RingBuffer<Good> ring = parts.length > 1 ?
+                new RingBuffer<Good>(RING_SIZE, false, WaitStrategy.find(parts[1])) : null;
+
+        switch(parts[0]) {
+            case "sync1":
+                final MySyncThread1 sync1 = new MySyncThread1(ring) {
+                    @Override
+                    protected void consumed(Good good) {
+                        consumed.incrementAndGet();
+                    }
+                };
+
+                return new Pair(sync1) {
+                    @Override
+                    public void put(Good good) {
+                        sync1.put(good);
+                    }
+                };
+
+            case "sync2":
+                final MySyncThread2 sync2 = new MySyncThread2(ring) {
+                    @Override
+                    protected void consumed(Good good) {
+                        consumed.incrementAndGet();
+                    }
+                };
+
+                return new Pair(sync2) {
+                    @Override
+                    public void put(Good good) {
+                        sync2.put(good);
+                    }
+                };
+
+            case "sync3":
+                final MySyncThread3 sync3 = new MySyncThread3(ring) {
+                    @Override
+                    protected void consumed(Good good) {
+                        consumed.incrementAndGet();
+                    }
+                };
+
+                return new Pair(sync3) {
+                    @Override
+                    public void put(Good good) {
+                        sync3.put(good);
+                    }
+                };
+
+            default:
+                throw new IllegalArgumentException("unknown workload: "+workload);
+        }
+    }
+
+    /**
+     * Reports how many carriers the virtual threads needed, and if more
+     * than twice the scheduler's parallelism, that tasks pinned them.
+     * @param carriers Most carrier threads alive at once during the run
+     */
+    protected void reportCarriers(int carriers) {
+        int parallelism = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors());
+
+        System.out.printf("         carriers %d for a parallelism of %d%s%n", carriers, parallelism,
+                carriers > parallelism * 2 ? ", PINNED: waiting tasks held their carriers" : "");
+    }
+
+    /**
+     * Counts the platform threads carrying virtual threads, which the JVM
+     * puts in the CarrierThreads group.
+     * @return Count
+     */
+    protected static int carriers() {
+        int count = 0;
+        for(Thread thread : Thread.getAllStackTraces().keySet()) {
+            ThreadGroup group = thread.getThreadGroup();
+            if(group != null && group.getName().equals("CarrierThreads"))
+                count++;
+        }
+
+        return count;
+    }
+
+    protected static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Gets the resident memory of the JVM, which unlike the heap counts
+     * the stacks of platform threads.
+     * @return Bytes, or -1 if the OS doesn't say
+     */
+    protected static long residentMemory() {
+        try(BufferedReader in = new BufferedReader(new FileReader("/proc/self/status"))) {
+            String line;
+            while((line = in.readLine()) != null) {
+                if(line.startsWith("VmRSS:"))
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+            }
+        } catch (IOException | NumberFormatException ex) {
+        }
+
+        return -1;
+    }
+
+    /**
+     * This class is a consumer and where its producer puts goods.
+     */
+    protected static abstract class Pair {
+        protected final Runnable consumer;
+
+        public Pair(Runnable consumer) {
+            this.consumer = consumer;
+        }
+
+        public abstract void put(Good good);
+    }
+}
@@ -0,0 +1,42 @@
+package charlie.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the number of bytes threads have allocated so the benchmarks can
+ * report an allocation rate alongside throughput.
+ *
+ * @author Brendan Van Allen
+ */
+public class Allocation {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Gets the bytes allocated so far by the calling thread.
+     * @return Allocated bytes, or -1 if the JVM can't measure it
+     */
+    public static long bytes() {
+        if(!(THREADS instanceof com.sun.management.ThreadMXBean))
+            return -1;
+
+        return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Gets the bytes allocated so far by every live thread. Threads that
+     * have already ended are not counted.
+     * @return Allocated bytes, or -1 if the JVM can't measure it
+     */
+    public static long totalBytes() {
+        if(!(THREADS instanceof com.sun.management.ThreadMXBean))
+            return -1;
+
+        long total = 0;
+        for(long bytes : ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(THREADS.getAllThreadIds()))
+            if(bytes > 0)
+                total += bytes;
+
+        return total;
+    }
+}
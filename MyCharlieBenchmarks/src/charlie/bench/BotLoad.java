@@ -0,0 +1,123 @@
+package charlie.bench;
+
+import charlie.bot.server.BotRuntime;
+import charlie.plugin.IBot;
+import charlie.util.Constant;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * This program puts the bots under load: many tables in one JVM, each a
+ * LoadDealer seating the same bots and dealing from charlie.bot.test.Shoe,
+ * all playing at once on the BotRuntime in turbo mode.
+ *
+ * The dealers pause for the Dealer's own deal delay between cards, so the
+ * runtime carries the same sleeping dealers it does in the server. A delay
+ * of 0 takes them out to measure the bots alone.
+ *
+ * It reports games per second, how long the bots take per decision, the
+ * number of threads the JVM needed and how fast it allocated.
+ *
+ * Usage: BotLoad [tables] [games per table] [bots, e.g. RightBot,LeftBot,HueyStay]
+ *          [deal delay ms] [log]
+ *
+ * Logging is turned down to warnings unless the last argument is "log",
+ * since the bots and the shoe log every card.
+ *
+ * @author Brendan Van Allen
+ */
+public class BotLoad {
+    /** Longest the whole run may take before the tables still playing are reported */
+    public final static long TIMEOUT_SECS = 600;
+
+    public static void main(String[] args) throws InterruptedException {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 5;
+        String[] names = (args.length > 2 ? args[2] : "RightBot,LeftBot,HueyStay").split(",");
+        long dealDelay = args.length > 3 ? Long.parseLong(args[3]) : Constant.DEAL_DELAY;
+        boolean log = args.length > 4 && args[4].equals("log");
+
+        if(names.length > LoadDealer.SEATS.length)
+            throw new IllegalArgumentException("at most " + LoadDealer.SEATS.length + " bots per table");
+
+        if(!log)
+            Logger.getRootLogger().setLevel(Level.WARN);
+
+        BotRuntime.setTurbo(true);
+
+        Class<? extends IBot>[] bots = bots(names);
+        CountDownLatch done = new CountDownLatch(tables);
+        LoadDealer[] dealers = new LoadDealer[tables];
+
+        for(int i = 0; i < tables; i++)
+            dealers[i] = new LoadDealer(bots, games, done, dealDelay);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        int startThreads = threads.getThreadCount();
+
+        long startBytes = Allocation.totalBytes();
+        long start = System.nanoTime();
+
+        for(LoadDealer dealer : dealers)
+            dealer.start();
+
+        boolean finished = done.await(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+        long nanos = System.nanoTime() - start;
+        long bytes = Allocation.totalBytes() - startBytes;
+        double secs = nanos / 1e9;
+
+        Histogram latency = new Histogram();
+        long played = 0;
+
+        for(int i = 0; i < tables; i++) {
+            played += dealers[i].getPlayed();
+
+            if(dealers[i].getPlayed() < games)
+                System.out.printf("table %d stalled after %d games\n", i, dealers[i].getPlayed());
+            else
+                latency.merge(dealers[i].getLatency());
+        }
+
+        System.out.printf("%d tables x %d games, bots %s, %d ms deal delay, %d runtime and %d table threads%s\n",
+                tables, games, String.join(",", names), dealDelay, BotRuntime.THREADS, BotRuntime.TABLE_THREADS,
+                finished ? "" : ", TIMED OUT");
+        System.out.printf("games      %,d in %.2f s (%,.0f games/sec)\n", played, secs, played / secs);
+        System.out.printf("decisions  %,d (%,.0f decisions/sec)\n", latency.getCount(), latency.getCount() / secs);
+        System.out.printf("latency    p50 %,d ns  p90 %,d ns  p99 %,d ns  p99.9 %,d ns  max %,d ns\n",
+                latency.percentile(50), latency.percentile(90), latency.percentile(99),
+                latency.percentile(99.9), latency.getMax());
+        System.out.printf("threads    %d at start, %d now, %d peak\n",
+                startThreads, threads.getThreadCount(), threads.getPeakThreadCount());
+
+        if(startBytes >= 0)
+            System.out.printf("allocation %,.1f MB/s (%,.0f bytes/game)\n",
+                    bytes / secs / 1e6, (double) bytes / Math.max(played, 1));
+    }
+
+    /**
+     * Finds the bot classes by simple name in charlie.bot.server.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Class<? extends IBot>[] bots(String[] names) {
+        Class<? extends IBot>[] bots = new Class[names.length];
+
+        for(int i = 0; i < names.length; i++) {
+            String name = names[i].contains(".") ? names[i] : "charlie.bot.server." + names[i];
+
+            try {
+                bots[i] = Class.forName(name).asSubclass(IBot.class);
+            }
+            catch(ClassNotFoundException e) {
+                throw new IllegalArgumentException("no bot " + name, e);
+            }
+        }
+
+        return bots;
+    }
+}
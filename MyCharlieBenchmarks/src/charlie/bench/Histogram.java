@@ -0,0 +1,101 @@
+package charlie.bench;
+
+/**
+ * A mergeable latency histogram with about 3% resolution.
+ *
+ * Values are bucketed by their power of two and then by the next five
+ * bits, so recording is a few shifts and an array increment and the
+ * memory used is fixed no matter how many values are recorded.
+ *
+ * @author Brendan Van Allen
+ */
+public class Histogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    protected final long[] counts = new long[64 * SUB_BUCKETS];
+    protected long total;
+    protected long max;
+
+    /**
+     * Records a value.
+     * @param value The value, for example a latency in nanoseconds
+     */
+    public void record(long value) {
+        if(value < 0)
+            value = 0;
+
+        counts[bucket(value)]++;
+        total++;
+
+        if(value > max)
+            max = value;
+    }
+
+    /**
+     * Adds another histogram's values to this one.
+     * @param other The values to add
+     */
+    public void merge(Histogram other) {
+        for(int i = 0; i < counts.length; i++)
+            counts[i] += other.counts[i];
+
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Gets the value at a percentile.
+     * @param percentile From 0 to 100
+     * @return Upper bound of the bucket holding the percentile
+     */
+    public long percentile(double percentile) {
+        if(total == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(percentile / 100 * total);
+        long seen = 0;
+
+        for(int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= rank && counts[i] > 0)
+                return Math.min(upper(i), max);
+        }
+
+        return max;
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Finds the bucket of a value: the top six bits of the value and
+     * how far they were shifted.
+     */
+    static int bucket(long value) {
+        if(value < 2 * SUB_BUCKETS)
+            return (int) value;
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Finds the largest value that falls in a bucket.
+     */
+    static long upper(int bucket) {
+        if(bucket < 2 * SUB_BUCKETS)
+            return bucket;
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long top = bucket % SUB_BUCKETS + SUB_BUCKETS;
+
+        return ((top + 1) << shift) - 1;
+    }
+}
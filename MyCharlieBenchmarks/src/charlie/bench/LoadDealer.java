@@ -0,0 +1,286 @@
+package charlie.bench;
+
+import charlie.bot.server.TableQueue;
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.card.Hid;
+import charlie.card.HoleCard;
+import charlie.dealer.Dealer;
+import charlie.dealer.Seat;
+import charlie.plugin.IBot;
+import charlie.plugin.IPlayer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A Dealer for load testing bots, with no House and no human player.
+ *
+ * The bots play against the real Dealer's hit, stay and doubleDown. Only
+ * the parts that talk to the House are replaced: dealing, moving to the
+ * next hand and closing the game do what the Dealer does, and sleep where
+ * it sleeps for the deal delay given, which is the Dealer's own unless the
+ * bots are to be measured alone. Each game seats fresh bots like the
+ * Dealer does and the next game starts on the table's queue as soon as
+ * the last one closes. Like the Dealer, the hole card isn't dealt to bots
+ * and every player hears it turned over as a null card at the close.
+ *
+ * @author Brendan Van Allen
+ */
+public class LoadDealer extends Dealer {
+    private final static long serialVersionUID = 1L;
+
+    /** Seats bots are put in, in the order they play */
+    public final static Seat[] SEATS = { Seat.RIGHT, Seat.YOU, Seat.LEFT };
+
+    protected final Class<? extends IBot>[] bots;
+    protected final long games;
+    protected final CountDownLatch done;
+    protected final TableQueue table;
+    protected final long dealDelay;
+
+    /** Time each bot decision takes, from its turn starting to its play arriving */
+    protected final Histogram latency = new Histogram();
+    protected volatile long played;
+    protected long turnStart;
+
+    /**
+     * Constructor
+     * @param bots The bot in each seat, in the order of SEATS
+     * @param games Number of games to play
+     * @param done Counted down once all the games are played
+     * @param dealDelay Milliseconds to pause for each card, Constant.DEAL_DELAY like the Dealer or 0 for none
+     */
+    public LoadDealer(Class<? extends IBot>[] bots, long games, CountDownLatch done, long dealDelay) {
+        super(null);
+
+        this.bots = bots;
+        this.games = games;
+        this.done = done;
+        this.dealDelay = dealDelay;
+        this.table = TableQueue.forDealer(this);
+
+        // Every table deals the same cards
+        shoe = new charlie.bot.test.Shoe();
+        shoe.init();
+    }
+
+    /**
+     * Starts the first game. Games run on the table's queue from here on.
+     */
+    public void start() {
+        table.submit(this::startGame);
+    }
+
+    @Override
+    protected void startGame() {
+        reset();
+        gameOver = false;
+        handSeqIndex = 0;
+
+        for(int seat = 0; seat < bots.length; seat++)
+            spawn(bots[seat], SEATS[seat]);
+
+        dealerHand = new Hand(new Hid(Seat.DEALER));
+
+        List<Hid> hids = new ArrayList<>(handSequence);
+        hids.add(dealerHand.getHid());
+
+        for(IPlayer player : playerSequence)
+            player.startGame(hids, shoe.size());
+
+        // The Dealer pauses a third of a deal delay before the first round
+        pause(dealDelay / 3);
+
+        round(handSequence);
+
+        holeCard = new HoleCard(deal());
+        dealerHand.hit(holeCard);
+        pause(dealDelay);
+        for(IPlayer player : playerSequence)
+            if(!(player instanceof IBot))
+                player.deal(dealerHand.getHid(), holeCard, dealerHand.getValues());
+
+        round(handSequence);
+
+        Card upCard = deal();
+        dealerHand.hit(upCard);
+        pause(dealDelay);
+        for(IPlayer player : playerSequence)
+            player.deal(dealerHand.getHid(), upCard, dealerHand.getValues());
+
+        if(dealerHand.isBlackjack())
+            closeGame();
+        else
+            goNextHand();
+    }
+
+    /**
+     * Seats a new bot the way Dealer.spawnBot does.
+     */
+    protected void spawn(Class<? extends IBot> type, Seat seat) {
+        IBot bot;
+        try {
+            bot = type.newInstance();
+        }
+        catch(InstantiationException | IllegalAccessException e) {
+            throw new IllegalArgumentException("can't create " + type.getName(), e);
+        }
+
+        bot.sit(seat);
+        bot.setDealer(this);
+
+        Hid hid = bot.getHand().getHid();
+        handSequence.add(hid);
+        playerSequence.add(bot);
+        players.put(hid, bot);
+        hands.put(hid, bot.getHand());
+    }
+
+    @Override
+    protected void round(List<Hid> hids) {
+        for(Hid hid : hids) {
+            Card card = deal();
+            Hand hand = hands.get(hid);
+            hand.hit(card);
+            pause(dealDelay);
+
+            for(IPlayer player : playerSequence)
+                player.deal(hid, card, hand.getValues());
+
+            if(hand.isBlackjack()) {
+                hid.multiplyAmt(BLACKJACK_PAYS);
+                updateBankroll(hid, BLACKJACK_PAYS);
+
+                for(IPlayer player : playerSequence)
+                    player.blackjack(hid);
+            }
+        }
+    }
+
+    @Override
+    protected void goNextHand() {
+        while(handSeqIndex < handSequence.size()) {
+            Hid hid = handSequence.get(handSeqIndex++);
+            active = players.get(hid);
+
+            // Blackjacks were paid on the deal
+            if(hands.get(hid).isBlackjack())
+                continue;
+
+            turnStart = System.nanoTime();
+            for(IPlayer player : playerSequence)
+                player.play(hid);
+
+            return;
+        }
+
+        closeGame();
+    }
+
+    @Override
+    protected void closeGame() {
+        gameOver = true;
+        signal();
+
+        // The Dealer turns the hole card over with a null card
+        for(IPlayer player : playerSequence)
+            player.deal(dealerHand.getHid(), null, dealerHand.getValues());
+
+        if(handsStanding() && !dealerHand.isBlackjack()) {
+            while(dealerHand.getValue() < 17) {
+                Card card = deal();
+                dealerHand.hit(card);
+                pause(dealDelay);
+
+                for(IPlayer player : playerSequence)
+                    player.deal(dealerHand.getHid(), card, dealerHand.getValues());
+            }
+        }
+
+        int dealer = dealerHand.isBroke() ? 0 : dealerHand.getValue();
+
+        for(Hid hid : handSequence) {
+            Hand hand = hands.get(hid);
+
+            // Busts, Charlies and blackjacks were settled as they happened
+            if(hand.isBroke() || hand.isCharlie() || hand.isBlackjack())
+                continue;
+
+            for(IPlayer player : playerSequence) {
+                if(dealerHand.isBlackjack() || hand.getValue() < dealer)
+                    player.lose(hid);
+                else if(hand.getValue() > dealer)
+                    player.win(hid);
+                else
+                    player.push(hid);
+            }
+        }
+
+        wrapUp();
+
+        if(++played < games)
+            table.submit(this::startGame);
+        else
+            done.countDown();
+    }
+
+    /**
+     * Sleeps on the table's thread the way the Dealer does between cards.
+     */
+    protected void pause(long millis) {
+        if(millis <= 0)
+            return;
+
+        try {
+            Thread.sleep(millis);
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    protected void updateBankroll(Hid hid, double gain) {
+        // There is no House to pay
+    }
+
+    @Override
+    public void hit(IPlayer iplayer, Hid hid) {
+        decided(iplayer);
+        super.hit(iplayer, hid);
+    }
+
+    @Override
+    public void stay(IPlayer iplayer, Hid hid) {
+        decided(iplayer);
+        super.stay(iplayer, hid);
+    }
+
+    @Override
+    public void doubleDown(IPlayer iplayer, Hid hid) {
+        decided(iplayer);
+        super.doubleDown(iplayer, hid);
+    }
+
+    /**
+     * Records how long the active player took to decide. The player's
+     * next decision, if any, starts now.
+     */
+    protected void decided(IPlayer iplayer) {
+        if(iplayer != active)
+            return;
+
+        long now = System.nanoTime();
+        latency.record(now - turnStart);
+        turnStart = now;
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public long getPlayed() {
+        return played;
+    }
+}
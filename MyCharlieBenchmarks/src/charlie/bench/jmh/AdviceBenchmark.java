@@ -0,0 +1,76 @@
+package charlie.bench.jmh;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.client.Advisor;
+import charlie.client.BasicStrategy;
+import charlie.client.StrategyEngine;
+import charlie.util.Play;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a decision by BasicStrategy.getPlay, by the compiled
+ * StrategyEngine it delegates to and by Advisor.advise over a realistic
+ * mix of hands and upCards.
+ *
+ * legacy measures the table-per-call lookup BasicStrategy used before the
+ * StrategyEngine, so one run shows decisions/sec before and after.
+ *
+ * @author Brendan Van Allen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdviceBenchmark {
+    protected final Hand[] hands = new Hand[Mix.SIZE];
+    protected final Card[] upCards = new Card[Mix.SIZE];
+    protected final Advisor advisor = new Advisor();
+    protected int index;
+
+    @Setup
+    public void setup() {
+        Mix.quiet();
+        Mix.decisions(hands, upCards);
+
+        for(int i = 0; i < Mix.SIZE; i++)
+            if(LegacyStrategy.getPlay(hands[i], upCards[i]) != StrategyEngine.BASIC.getPlay(hands[i], upCards[i]))
+                throw new IllegalStateException("legacy and engine disagree on " + hands[i] + " vs " + upCards[i]);
+    }
+
+    @Benchmark
+    public Play legacy() {
+        int i = index++ & Mix.MASK;
+        return LegacyStrategy.getPlay(hands[i], upCards[i]);
+    }
+
+    @Benchmark
+    public Play basicStrategy() {
+        int i = index++ & Mix.MASK;
+        return BasicStrategy.getPlay(hands[i], upCards[i]);
+    }
+
+    @Benchmark
+    public Play engine() {
+        int i = index++ & Mix.MASK;
+        return StrategyEngine.BASIC.getPlay(hands[i], upCards[i]);
+    }
+
+    @Benchmark
+    public Play advisor() {
+        int i = index++ & Mix.MASK;
+        return advisor.advise(hands[i], upCards[i]);
+    }
+}
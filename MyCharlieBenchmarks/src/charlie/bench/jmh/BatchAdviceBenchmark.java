@@ -0,0 +1,84 @@
+package charlie.bench.jmh;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.client.Advisor;
+import charlie.client.PackedHand;
+import charlie.plugin.IAdvisor;
+import charlie.util.Play;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures deciding the whole mix of hands at once, the way a simulation
+ * farm does, in decisions per microsecond.
+ *
+ * perCall asks IAdvisor.advise about each Hand, packed asks the Advisor
+ * about each packed hand, and batch hands the Advisor every packed hand
+ * in one call.
+ *
+ * @author Brendan Van Allen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchAdviceBenchmark {
+    protected final Hand[] hands = new Hand[Mix.SIZE];
+    protected final Card[] upCards = new Card[Mix.SIZE];
+    protected final int[] packedHands = new int[Mix.SIZE];
+    protected final int[] upCardValues = new int[Mix.SIZE];
+    protected final Play[] plays = new Play[Mix.SIZE];
+
+    protected final Advisor advisor = new Advisor();
+    protected final IAdvisor plugin = advisor;
+
+    @Setup
+    public void setup() {
+        Mix.quiet();
+        Mix.decisions(hands, upCards);
+
+        for(int i = 0; i < Mix.SIZE; i++) {
+            packedHands[i] = PackedHand.of(hands[i]);
+            upCardValues[i] = upCards[i].value();
+
+            if(advisor.advise(packedHands[i], upCardValues[i]) != plugin.advise(hands[i], upCards[i]))
+                throw new IllegalStateException("packed hand disagrees on " + hands[i] + " vs " + upCards[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Mix.SIZE)
+    public Play[] perCall() {
+        for(int i = 0; i < Mix.SIZE; i++)
+            plays[i] = plugin.advise(hands[i], upCards[i]);
+        return plays;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Mix.SIZE)
+    public Play[] packed() {
+        for(int i = 0; i < Mix.SIZE; i++)
+            plays[i] = advisor.advise(packedHands[i], upCardValues[i]);
+        return plays;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Mix.SIZE)
+    public Play[] batch() {
+        advisor.advise(packedHands, upCardValues, plays, Mix.SIZE);
+        return plays;
+    }
+}
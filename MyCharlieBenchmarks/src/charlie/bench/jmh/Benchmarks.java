@@ -0,0 +1,47 @@
+package charlie.bench.jmh;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the MyCharliePlugins benchmarks with the GC profiler, so every
+ * result has an allocation rate (gc.alloc.rate.norm is bytes per call)
+ * next to its throughput.
+ *
+ * Results are also written as JSON, named for the day they were run,
+ * so runs can be compared release over release, e.g. with
+ * https://jmh.morethan.net.
+ *
+ * Usage: Benchmarks [JMH options, e.g. AdviceBenchmark -f 3]
+ *
+ * @author Brendan Van Allen
+ */
+public class Benchmarks {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        String result = "jmh-" + new SimpleDateFormat("yyyyMMdd-HHmm").format(new Date()) + ".json";
+
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cmd);
+
+        // Run all the benchmarks unless some were named
+        if(cmd.getIncludes().isEmpty())
+            builder.include(Benchmarks.class.getPackage().getName() + ".*");
+
+        Options options = builder
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,114 @@
+package charlie.bench.jmh;
+
+import charlie.card.Card;
+import charlie.card.Hid;
+import charlie.client.CountingTrap;
+import charlie.client.HiLoCounter;
+import charlie.dealer.Seat;
+import charlie.message.view.to.Deal;
+import charlie.message.view.to.GameStart;
+import charlie.message.view.to.Shuffle;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures counting one dealt card with HiLoCounter.update and with
+ * CountingTrap.onReceive.
+ *
+ * Both plugins share the client's ShoeTracker, which counts a card for
+ * whichever plugin reports it first, so each gets a fork of its own. The
+ * cards of a shoe are distinct, so every update is counted. The shoe is
+ * shuffled at the same penetration as the dealer's, so the cost of a
+ * shuffle is spread over the cards like it is at the table.
+ *
+ * @author Brendan Van Allen
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CountingBenchmark {
+    /** Cards dealt before the shoe is shuffled, 75% of six decks */
+    public final static int PER_SHOE = Mix.DECKS * 52 * 3 / 4;
+
+    @State(Scope.Thread)
+    public static class Cards {
+        protected final Card[] cards = new Card[Mix.SIZE];
+        protected int index;
+        protected int dealt;
+
+        @Setup
+        public void setup() {
+            Mix.quiet();
+            Mix.cards(cards);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Counter {
+        protected HiLoCounter counter;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            counter = new HiLoCounter();
+            counter.startGame(Mix.DECKS * 52);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Trap {
+        protected CountingTrap trap;
+        protected Deal[] deals;
+        protected final GameStart start = new GameStart(new ArrayList<Hid>(), Mix.DECKS * 52);
+        protected final Shuffle shuffle = new Shuffle();
+
+        @Setup(Level.Trial)
+        public void setup(Cards cards) {
+            trap = new CountingTrap();
+            trap.onReceive(start);
+
+            Hid hid = new Hid(Seat.YOU);
+            deals = new Deal[cards.cards.length];
+            for(int i = 0; i < deals.length; i++)
+                deals[i] = new Deal(hid, new int[] { 0, 0 }, cards.cards[i]);
+        }
+    }
+
+    @Benchmark
+    public HiLoCounter hiLoCounter(Cards cards, Counter counter) {
+        counter.counter.update(cards.cards[cards.index++ & Mix.MASK]);
+
+        if(++cards.dealt == PER_SHOE) {
+            cards.dealt = 0;
+            counter.counter.shufflePending();
+            counter.counter.startGame(Mix.DECKS * 52);
+        }
+
+        return counter.counter;
+    }
+
+    @Benchmark
+    public CountingTrap countingTrap(Cards cards, Trap trap) {
+        trap.trap.onReceive(trap.deals[cards.index++ & Mix.MASK]);
+
+        if(++cards.dealt == PER_SHOE) {
+            cards.dealt = 0;
+            trap.trap.onReceive(trap.shuffle);
+            trap.trap.onReceive(trap.start);
+        }
+
+        return trap.trap;
+    }
+}
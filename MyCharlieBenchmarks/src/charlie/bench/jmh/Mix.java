@@ -0,0 +1,133 @@
+package charlie.bench.jmh;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.card.Hid;
+import charlie.client.CompositionSolver;
+import charlie.dealer.Seat;
+import charlie.sim.FastShoe;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * Realistic inputs for the benchmarks, dealt from a shuffled six deck
+ * shoe with a fixed seed so every run measures the same mix.
+ *
+ * Sizes are powers of two so a benchmark can step through them with a
+ * mask instead of a branch.
+ *
+ * @author Brendan Van Allen
+ */
+public class Mix {
+    public final static int SIZE = 4096;
+    public final static int MASK = SIZE - 1;
+    public final static int DECKS = 6;
+    public final static long SEED = 0;
+
+    /**
+     * Turns logging down to warnings like a deployed client, so the
+     * benchmarks measure the plugins and not the console.
+     */
+    public static void quiet() {
+        Logger.getRootLogger().setLevel(Level.WARN);
+    }
+
+    /**
+     * Deals the hands a player decides on: two card hands, and about a
+     * third with a card hit, skipping any already at 21 or busted.
+     * @param hands Filled with the player's hands
+     * @param upCards Filled with the dealer's upCard for each hand
+     */
+    public static void decisions(Hand[] hands, Card[] upCards) {
+        FastShoe shoe = shoe();
+
+        for(int i = 0; i < hands.length; i++) {
+            Hand hand;
+            do {
+                hand = new Hand(new Hid(Seat.YOU));
+                hand.hit(deal(shoe));
+                hand.hit(deal(shoe));
+
+                if(i % 3 == 0 && hand.getValue() < 17)
+                    hand.hit(deal(shoe));
+            } while(hand.getValue() >= 21);
+
+            hands[i] = hand;
+            upCards[i] = deal(shoe);
+        }
+    }
+
+    /**
+     * Deals the hands a player decides on along with the cards not yet
+     * seen when each decision is made, dealing on through the shoe.
+     * @param hands Filled with the player's hands
+     * @param upCards Filled with the dealer's upCard for each hand
+     * @param shoes Filled with the cards left by value, Ace = 1 through 10
+     */
+    public static void decisions(Hand[] hands, Card[] upCards, int[][] shoes) {
+        FastShoe shoe = shoe();
+        int[] left = CompositionSolver.shoe(DECKS);
+
+        for(int i = 0; i < hands.length; i++) {
+            if(shoe.shuffleNeeded()) {
+                shoe.shuffle();
+                left = CompositionSolver.shoe(DECKS);
+            }
+
+            Hand hand;
+            do {
+                hand = new Hand(new Hid(Seat.YOU));
+                hand.hit(take(shoe, left));
+                hand.hit(take(shoe, left));
+            } while(hand.getValue() >= 21);
+
+            hands[i] = hand;
+            upCards[i] = take(shoe, left);
+            shoes[i] = left.clone();
+        }
+    }
+
+    /**
+     * Deals two card hands with a side bet on them.
+     * @param hands Filled with the hands
+     */
+    public static void sideBets(Hand[] hands) {
+        FastShoe shoe = shoe();
+
+        for(int i = 0; i < hands.length; i++) {
+            hands[i] = new Hand(new Hid(Seat.YOU, 5.0, 5.0));
+            hands[i].hit(deal(shoe));
+            hands[i].hit(deal(shoe));
+        }
+    }
+
+    /**
+     * Deals cards in the order they come out of the shoe.
+     * @param cards Filled with the cards
+     */
+    public static void cards(Card[] cards) {
+        FastShoe shoe = shoe();
+
+        for(int i = 0; i < cards.length; i++)
+            cards[i] = deal(shoe);
+    }
+
+    static FastShoe shoe() {
+        FastShoe shoe = new FastShoe(DECKS, SEED);
+        shoe.init();
+        return shoe;
+    }
+
+    static Card take(FastShoe shoe, int[] left) {
+        Card card = shoe.next();
+        CompositionSolver.remove(left, card);
+        return card;
+    }
+
+    static Card deal(FastShoe shoe) {
+        if(shoe.shuffleNeeded())
+            shoe.shuffle();
+
+        return shoe.next();
+    }
+}
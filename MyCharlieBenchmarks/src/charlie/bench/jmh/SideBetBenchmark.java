@@ -0,0 +1,44 @@
+package charlie.bench.jmh;
+
+import charlie.card.Hand;
+import charlie.sidebet.rule.SideBetRule;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures SideBetRule.apply over two card hands dealt from a shoe, so
+ * winners come up about as often as they do at the table.
+ *
+ * @author Brendan Van Allen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SideBetBenchmark {
+    protected final Hand[] hands = new Hand[Mix.SIZE];
+    protected final SideBetRule rule = new SideBetRule();
+    protected int index;
+
+    @Setup
+    public void setup() {
+        Mix.quiet();
+        Mix.sideBets(hands);
+    }
+
+    @Benchmark
+    public double apply() {
+        return rule.apply(hands[index++ & Mix.MASK]);
+    }
+}
@@ -0,0 +1,65 @@
+package charlie.bench.jmh;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.client.CompositionSolver;
+import charlie.util.Play;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a CompositionSolver decision, each from a different point in
+ * a six deck shoe.
+ *
+ * cold solves with an empty cache, so every decision works out the
+ * dealer's distribution. warm asks again about shoes already in the
+ * cache, like a second plugin asking about the same decision.
+ *
+ * @author Brendan Van Allen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    /** Fewer decisions than the cache holds for one upCard, so warm always hits */
+    public final static int SIZE = 512;
+
+    protected final Hand[] hands = new Hand[SIZE];
+    protected final Card[] upCards = new Card[SIZE];
+    protected final int[][] shoes = new int[SIZE][];
+    protected final CompositionSolver solver = new CompositionSolver();
+    protected int index;
+
+    @Setup
+    public void setup() {
+        Mix.quiet();
+        Mix.decisions(hands, upCards, shoes);
+
+        for(int i = 0; i < SIZE; i++)
+            solver.solve(shoes[i], hands[i], upCards[i]);
+    }
+
+    @Benchmark
+    public Play cold() {
+        int i = index++ & (SIZE - 1);
+        return new CompositionSolver().getPlay(shoes[i], hands[i], upCards[i]);
+    }
+
+    @Benchmark
+    public Play warm() {
+        int i = index++ & (SIZE - 1);
+        return solver.getPlay(shoes[i], hands[i], upCards[i]);
+    }
+}
@@ -0,0 +1,118 @@
+package charlie.bot.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The shared runtime all bots in the JVM make their plays on.
+ *
+ * Instead of starting a thread per turn that sleeps while the bot
+ * "thinks", a bot schedules its play on a small pool after its think
+ * time. The number of threads stays the same no matter how many bots
+ * are seated, here and in the table pool below.
+ *
+ * A bot's play only works out what to do. Its action against the Dealer
+ * runs on a separate, fixed pool of table threads, since the Dealer
+ * sleeps for its deal delay as it moves to the next hand and closes or
+ * starts a game. A sleeping dealer then holds a table thread, not one the
+ * bots at other tables need to play. Each table drains on at most one
+ * thread at a time. With more busy tables than table threads, a table
+ * waits for a thread while the dealers ahead of it sleep, so size the
+ * pool for the tables that deal at once.
+ *
+ * Settings, as system properties:
+ *      charlie.bot.threads        Size of the pool, default the number of cores
+ *      charlie.bot.table.threads  Size of the table pool, default 8 per core
+ *      charlie.bot.turbo          If true, bots play with no think time
+ *
+ * @author Brendan Van Allen
+ */
+public class BotRuntime {
+    public final static int THREADS =
+            Integer.getInteger("charlie.bot.threads", Runtime.getRuntime().availableProcessors());
+
+    private static final ScheduledExecutorService EXECUTOR =
+            Executors.newScheduledThreadPool(THREADS, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "bot-runtime-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    public final static int TABLE_THREADS =
+            Integer.getInteger("charlie.bot.table.threads", 8 * Runtime.getRuntime().availableProcessors());
+
+    private static final ExecutorService TABLES =
+            Executors.newFixedThreadPool(TABLE_THREADS, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "bot-table-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private static volatile boolean turbo = Boolean.getBoolean("charlie.bot.turbo");
+    private static volatile ThinkTime override = null;
+
+    /**
+     * Schedules a bot's play after it thinks.
+     * @param play The play to make
+     * @param thinkTime The bot's own think time
+     */
+    public static void schedule(Runnable play, ThinkTime thinkTime) {
+        long delay = turbo ? 0 : (override != null ? override : thinkTime).millis();
+
+        if(delay <= 0)
+            EXECUTOR.execute(play);
+        else
+            EXECUTOR.schedule(play, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a task on the runtime as soon as a thread is free. The task
+     * must not block.
+     * @param task The task
+     */
+    public static void execute(Runnable task) {
+        EXECUTOR.execute(task);
+    }
+
+    /**
+     * Runs a task that may block, e.g. in the Dealer, on a table thread.
+     * @param task The task
+     */
+    public static void executeAtTable(Runnable task) {
+        TABLES.execute(task);
+    }
+
+    /**
+     * Turns turbo mode on or off. In turbo mode bots play immediately.
+     * @param on True for turbo mode
+     */
+    public static void setTurbo(boolean on) {
+        turbo = on;
+    }
+
+    public static boolean isTurbo() {
+        return turbo;
+    }
+
+    /**
+     * Sets one think time for every bot in the JVM.
+     * @param thinkTime The think time, or null to let each bot use its own
+     */
+    public static void setThinkTime(ThinkTime thinkTime) {
+        override = thinkTime;
+    }
+}
@@ -0,0 +1,21 @@
+package charlie.bot.server;
+
+/**
+ * Where a bot is in its turn.
+ *
+ *      WAITING --play--> THINKING --think time--> ACTING
+ *      ACTING --card dealt--> THINKING   (after a hit)
+ *      ACTING --stay, double down or bust--> WAITING
+ *
+ * @author Brendan Van Allen
+ */
+public enum BotTurn {
+    /** Not the bot's turn */
+    WAITING,
+
+    /** The bot's turn; its play is scheduled after its think time */
+    THINKING,
+
+    /** The bot's play is queued at the table */
+    ACTING
+}
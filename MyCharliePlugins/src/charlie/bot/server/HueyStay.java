@@ -7,7 +7,6 @@ import charlie.dealer.Dealer;
 import charlie.dealer.Seat;
 import charlie.plugin.IBot;
 import java.util.List;
-import java.util.Random;
 
 /**
  * A very basic implementation of the IBot interface of Charlie.
@@ -19,7 +18,8 @@ public class HueyStay implements IBot, Runnable {
     protected Seat mine;
     protected Hand myHand;
     protected Dealer dealer;
-    protected Random ran = new Random();
+    protected TableQueue table;
+    protected ThinkTime thinkTime = ThinkTime.uniform(0, MAX_THINKING * 1000);
     
     
     @Override
@@ -30,6 +30,7 @@ public class HueyStay implements IBot, Runnable {
     @Override
     public void setDealer(Dealer dealer) {
         this.dealer = dealer;
+        this.table = TableQueue.forDealer(dealer);
     }
 
     @Override
@@ -88,7 +89,7 @@ public class HueyStay implements IBot, Runnable {
         if(hid.getSeat() != mine)
             return;
         
-        new Thread(this).start();
+        BotRuntime.schedule(this, thinkTime);
     }
 
     @Override
@@ -97,14 +98,7 @@ public class HueyStay implements IBot, Runnable {
 
     @Override
     public void run() {
-        try{
-            int thinking = ran.nextInt(MAX_THINKING * 1000);
-            Thread.sleep(thinking);
-            dealer.stay(this, myHand.getHid());
-        }
-        catch(InterruptedException e){
-            
-        }
+        table.submit(() -> dealer.stay(this, myHand.getHid()));
     }
     
 }
@@ -3,30 +3,40 @@ package charlie.bot.server;
 import charlie.card.Card;
 import charlie.card.Hand;
 import charlie.card.Hid;
-import charlie.client.BasicStrategy;
+import charlie.card.HoleCard;
+import charlie.client.DeviationTable;
+import charlie.client.PackedHand;
+import charlie.client.RuleSet;
+import charlie.client.StrategyEngine;
 import charlie.dealer.Dealer;
 import charlie.dealer.Seat;
 import charlie.plugin.IBot;
 import charlie.util.Play;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.log4j.Logger;
 
 /**
  * This class simulates a player at a Blackjack table.
- * The bot follows the basic strategy for all of its
- * plays.
+ * The bot follows the basic strategy for the house rules
+ * named by charlie.strategy.rules for all of its plays, or the DeviationTable for those rules
+ * at its table's true count when charlie.strategy.deviations is true.
  * @author brendan
  */
 public class RightBot implements IBot, Runnable{
     protected final int MAX_THINKING = 3;
     protected Dealer dealer;
+    protected TableQueue table;
     protected Hand botHand;
     protected Seat botSeat;
     protected Hid botHid;
-    protected Card upCard;
-    protected Random ran = new Random();
-    protected boolean isBotTurn = false;
+    protected volatile Card upCard;
+    protected ThinkTime thinkTime = ThinkTime.uniform(1000, 1000 + MAX_THINKING * 1000);
+    protected final AtomicReference<BotTurn> turn = new AtomicReference<>(BotTurn.WAITING);
+    protected final StrategyEngine engine = StrategyEngine.forRules(RuleSet.getDefault());
+    protected final DeviationTable deviations =
+            DeviationTable.ENABLED ? DeviationTable.find(engine.getRules().getName()) : null;
+    protected TableCount count = new TableCount();
     private final Logger LOG = Logger.getLogger(RightBot.class);
     private final String botName = this.getClass().getName();
 
@@ -42,12 +52,16 @@ public class RightBot implements IBot, Runnable{
 
     @Override
     /**
-     * Sets the dealer for this bot
+     * Sets the dealer for this bot and finds the queue
+     * the bot's actions at this table go through, and
+     * the count the bots at this table keep.
      * 
      * @param dealer the dealer
      */
     public void setDealer(Dealer dealer) {
         this.dealer = dealer;
+        this.table = TableQueue.forDealer(dealer);
+        this.count = TableCount.forDealer(dealer);
     }
 
     @Override
@@ -73,12 +87,15 @@ public class RightBot implements IBot, Runnable{
     @Override
     /**
      * Writes a line to the log indicating the game is starting
+     * and starts the table's count over if the shoe was shuffled.
      * 
      * @param hids all hids in the current game
      * @param shoeSize the current size of the Shoe
      */
     public void startGame(List<Hid> hids, int shoeSize) {
         LOG.info("Starting new game");
+        
+        count.startGame(shoeSize);
     }
 
     @Override
@@ -93,10 +110,13 @@ public class RightBot implements IBot, Runnable{
 
     @Override
     /**
-     * The bot checks for 2 things when the dealer invokes deal:
+     * The bot counts every card it sees, but not the hole card: the
+     * dealer turns it over with a null card at the end of the game.
+     * Then it checks for 2 things when the dealer invokes deal:
      *      1. If the card belongs to the dealer and we don't have
      *         the upCard yet, we save the card as the upCard.
-     *      2. If it is still the bot's turn, we invoke play.
+     *      2. If the card is the one we hit for, our turn goes on
+     *         unless the dealer ends it: bust, Charlie or 21.
      * 
      * @param hid the hid of the hand that was dealt a card
      * @param card the card that was dealt
@@ -104,13 +124,24 @@ public class RightBot implements IBot, Runnable{
      */
     public void deal(Hid hid, Card card, int[] values) {
         
+        // Bots aren't dealt the hole card and only hear it turned over as null
+        if(card == null || card instanceof HoleCard)
+            return;
+        
+        // Every card dealt at the table is counted, once for all its bots
+        count.deal(card);
+        
         // If the Hid is the dealer's and upCard is null, this card must be the upCard
         if(hid.getSeat().equals(Seat.DEALER)  && upCard == null)
             upCard = card;
         
-        // If it is still the bot's turn, then it must play
-        else if(isBotTurn)
-            play(hid);
+        // If we hit for this card, it is still the bot's turn unless the dealer moves on
+        else if(hid.getSeat() == botSeat && turn.get() == BotTurn.ACTING) {
+            if(botHand.isBroke() || botHand.isCharlie() || botHand.getValue() == 21)
+                turn.set(BotTurn.WAITING);
+            else
+                play(hid);
+        }
     }
 
     @Override
@@ -188,28 +219,31 @@ public class RightBot implements IBot, Runnable{
 
     @Override
     /**
-     * Not implemented since shuffling does not matter to this bot.
+     * Starts the table's count over at the next game.
      */
     public void shuffling() {
+        count.shuffling();
     }
 
     @Override
     /**
-     * If it is the bot's turn, it spawns a worker thread
-     * to calculate its play.
+     * If it is the bot's turn, it schedules its play on the
+     * shared BotRuntime after it thinks.
      * 
      * @param hid the hid of the hand that is playing
      */
     public void play(Hid hid) {
         
-        // If the seat for hid is this bot's seat, then it is the bot's turn
-        isBotTurn = hid.getSeat() == botSeat;
-        
-        // Spawn the worker thread if its the bot's turn
-        if(isBotTurn) {
-            LOG.info(botName + " starting turn");
-            new Thread(this).start();
+        // If the seat for hid is not this bot's seat, then it is not the bot's turn
+        if(hid.getSeat() != botSeat) {
+            turn.set(BotTurn.WAITING);
+            return;
         }
+        
+        // Schedule the play since its the bot's turn
+        LOG.info(botName + " starting turn");
+        turn.set(BotTurn.THINKING);
+        BotRuntime.schedule(this, thinkTime);
     }
 
     @Override
@@ -221,68 +255,165 @@ public class RightBot implements IBot, Runnable{
 
     @Override
     /**
-     * The worker thread that calculates the bots play
-     * and sends it to the dealer.
+     * Calculates the bots play and queues it at the table.
+     * This runs on the BotRuntime once the bot is done thinking.
      */
     public void run() {
-        try{
-            // This bot simulates a human player, so it takes time to "think" about its play
-            int thinking = 1000 + ran.nextInt(MAX_THINKING * 1000);
-            Thread.sleep(thinking);
-            
-            // Get the play from the BasicStrategy
-            Play play = BasicStrategy.getPlay(botHand, upCard);
-            
-            // Since bots cannot split, the play must be corrected
-            if(play.equals(Play.SPLIT))
-                play = correct();
-            
-            synchronized(dealer) {
-                switch(play) {
-                    case HIT:
-                        LOG.info(botName + " hitting");
-                        
-                        // Tell the dealer we want to hit
-                        dealer.hit(this,botHid);
-                        break;
-                        
-                    case STAY:
-                        LOG.info(botName + " staying");
-                        
-                        // After staying, it won't be the bot's turn
-                        isBotTurn = false;
-                        
-                        // Tell the dealer we want to stay
-                        dealer.stay(this, botHid);
-                        break;
-                        
-                    case DOUBLE_DOWN:
-                        LOG.info(botName + " doubling down");
-                        
-                        // After doubling down, it won't be the bot's turn
-                        isBotTurn = false;
-                        
-                        // Tell the dealer we want to double down
-                        dealer.doubleDown(this, botHid);
-                        break;
-                }
-            }        
-        }
-        catch(InterruptedException e){   
+        // If the turn ended while we were thinking, there is nothing to do
+        if(!turn.compareAndSet(BotTurn.THINKING, BotTurn.ACTING))
             return;
+        
+        // Get the play from the compiled BasicStrategy or the deviations for the count
+        final Play play = deviations != null ?
+                getPlay(deviations, botHand, upCard, getTrueCount()) :
+                getPlay(engine, botHand, upCard);
+
+        table.submit(() -> act(play));
+    }
+    
+    /**
+     * Sends the bot's play to the dealer. This runs on the table's
+     * queue, so no other bot acts on the dealer at the same time.
+     * 
+     * @param play the play to make
+     */
+    protected void act(Play play) {
+        switch(play) {
+            case HIT:
+                LOG.info(botName + " hitting");
+
+                // Tell the dealer we want to hit
+                dealer.hit(this,botHid);
+                break;
+
+            case STAY:
+                LOG.info(botName + " staying");
+
+                // After staying, it won't be the bot's turn
+                turn.set(BotTurn.WAITING);
+
+                // Tell the dealer we want to stay
+                dealer.stay(this, botHid);
+                break;
+
+            case DOUBLE_DOWN:
+                LOG.info(botName + " doubling down");
+
+                // After doubling down, it won't be the bot's turn
+                turn.set(BotTurn.WAITING);
+
+                // Tell the dealer we want to double down
+                dealer.doubleDown(this, botHid);
+                break;
         }
     }
     
     /**
-     * Corrects splits since bots cannot split.
+     * Gets the play this bot makes for a hand. This is the BasicStrategy
+     * play, corrected since bots cannot split.
      * 
+     * @param hand the bot's hand
+     * @param upCard the dealer's upCard
      * @return the corrected play from BasicStrategy
      */
-    private Play correct() {
-        if(botHand.getValue() < 12)
-            return BasicStrategy.section2(botHand, upCard);
-        else
-            return BasicStrategy.section1(botHand, upCard);
+    public static Play getPlay(Hand hand, Card upCard) {
+        return getPlay(StrategyEngine.BASIC, hand, upCard);
+    }
+    
+    /**
+     * Gets the play this bot makes for a hand under a table's rules,
+     * corrected since bots cannot split.
+     * 
+     * @param engine the strategy compiled for the rules
+     * @param hand the bot's hand
+     * @param upCard the dealer's upCard
+     * @return the corrected play from the engine
+     */
+    public static Play getPlay(StrategyEngine engine, Hand hand, Card upCard) {
+        Play play = engine.getPlay(hand, upCard);
+        
+        // Play the pair as a hard total instead
+        if(play == Play.SPLIT)
+            play = engine.lookup(StrategyEngine.HARD, hand.getValue(), upCard.value());
+        
+        return play;
+    }
+    
+    /**
+     * Gets the play this bot makes for a packed hand, without allocating,
+     * corrected since bots cannot split.
+     * 
+     * @param engine the strategy compiled for the rules
+     * @param packedHand the bot's hand, packed by PackedHand
+     * @param upCardValue the value of the dealer's upCard
+     * @return the corrected play from the engine
+     */
+    public static Play getPlay(StrategyEngine engine, int packedHand, int upCardValue) {
+        Play play = engine.getPlay(packedHand, upCardValue);
+        
+        // Play the pair as a hard total instead
+        if(play == Play.SPLIT)
+            play = engine.lookup(StrategyEngine.HARD, PackedHand.value(packedHand), upCardValue);
+        
+        return play;
+    }
+    
+    /**
+     * Gets the play this bot makes for a hand at a true count. This is
+     * the DeviationTable play, corrected since bots cannot split.
+     * 
+     * @param hand the bot's hand
+     * @param upCard the dealer's upCard
+     * @param trueCount the true count
+     * @return the corrected play from the DeviationTable
+     */
+    public static Play getPlay(Hand hand, Card upCard, double trueCount) {
+        return getPlay(StrategyEngine.BASIC, hand, upCard, trueCount);
+    }
+    
+    /**
+     * Gets the play this bot makes for a hand at a true count under a
+     * table's rules. This is the DeviationTable play for the rules,
+     * corrected since bots cannot split. The table is looked up by name
+     * on every call, so a bot uses the one it found when it was made.
+     * 
+     * @param engine the strategy compiled for the rules
+     * @param hand the bot's hand
+     * @param upCard the dealer's upCard
+     * @param trueCount the true count
+     * @return the corrected play from the DeviationTable
+     */
+    public static Play getPlay(StrategyEngine engine, Hand hand, Card upCard, double trueCount) {
+        return getPlay(DeviationTable.find(engine.getRules().getName()), hand, upCard, trueCount);
+    }
+    
+    /**
+     * Gets the play this bot makes for a hand at a true count from a
+     * DeviationTable the bot already found, corrected since bots cannot split.
+     * 
+     * @param table the deviations for the table's rules
+     * @param hand the bot's hand
+     * @param upCard the dealer's upCard
+     * @param trueCount the true count
+     * @return the corrected play from the DeviationTable
+     */
+    public static Play getPlay(DeviationTable table, Hand hand, Card upCard, double trueCount) {
+        Play play = table.getPlay(hand, upCard, trueCount);
+        
+        // Play the pair as a hard total instead
+        if(play == Play.SPLIT)
+            play = table.lookup(StrategyEngine.HARD, hand.getValue(), upCard.value(), DeviationTable.bucket(trueCount));
+        
+        return play;
+    }
+    
+    /**
+     * Gets the true count of the bot's table over the cards left in the shoe.
+     * 
+     * @return the true count
+     */
+    public double getTrueCount() {
+        return count.getTrueCount();
     }
     
 }
@@ -0,0 +1,103 @@
+package charlie.bot.server;
+
+import charlie.card.Card;
+import charlie.card.HoleCard;
+import charlie.client.CountEngine;
+import charlie.dealer.Dealer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * The count of one table's shoe, shared by the bots seated at it.
+ *
+ * The Dealer seats new bots every game, so a bot can't keep the count of
+ * the shoe itself. The bots at a table feed the table's count instead.
+ * The Dealer hands every player the same Card, so a card is counted once
+ * however many bots are dealt it, and the count only starts over at the
+ * first game after the shoe is shuffled.
+ *
+ * @author Brendan Van Allen
+ */
+public class TableCount {
+    /** One count per Dealer, dropped when the Dealer is */
+    private static final Map<Dealer, TableCount> TABLES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    protected final CountEngine engine;
+
+    /** Cards counted this game */
+    protected final Set<Card> dealt = Collections.newSetFromMap(new IdentityHashMap<Card, Boolean>());
+    protected int cardsLeft;
+
+    // The first game at a table starts a fresh shoe just like a shuffle does
+    protected boolean shuffled = true;
+
+    /**
+     * Constructor for the system set by the charlie.counter.system property
+     */
+    public TableCount() {
+        this(new CountEngine());
+    }
+
+    /**
+     * Constructor
+     * @param engine Keeps the running count
+     */
+    public TableCount(CountEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Gets the count for a table.
+     * @param dealer The table's dealer
+     * @return The table's count
+     */
+    public static TableCount forDealer(Dealer dealer) {
+        return TABLES.computeIfAbsent(dealer, d -> new TableCount());
+    }
+
+    /**
+     * Starts a game, starting the count over if the shoe was shuffled.
+     * Every bot at the table starts it before any card is dealt.
+     * @param shoeSize Number of cards in the shoe
+     */
+    public synchronized void startGame(int shoeSize) {
+        dealt.clear();
+
+        if(shuffled) {
+            shuffled = false;
+            engine.reset(Math.max(1, (int) Math.round(shoeSize / 52.0)));
+        }
+
+        cardsLeft = shoeSize;
+    }
+
+    /**
+     * Counts a dealt card unless a bot at the table already has. The hole
+     * card and the null card it is turned over with aren't counted.
+     * @param card The card dealt
+     */
+    public synchronized void deal(Card card) {
+        if(card == null || card instanceof HoleCard || !dealt.add(card))
+            return;
+
+        engine.count(card);
+        cardsLeft--;
+    }
+
+    /**
+     * Notes that the shoe will be shuffled before the next game.
+     */
+    public synchronized void shuffling() {
+        shuffled = true;
+    }
+
+    /**
+     * Gets the true count over the cards left in the shoe.
+     */
+    public synchronized double getTrueCount() {
+        return engine.trueCount(Math.max(cardsLeft, 1) / 52.0);
+    }
+}
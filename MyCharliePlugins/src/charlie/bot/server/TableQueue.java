@@ -0,0 +1,70 @@
+package charlie.bot.server;
+
+import charlie.dealer.Dealer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.log4j.Logger;
+
+/**
+ * The ordered queue of bot actions for one table.
+ *
+ * Bots submit their hits, stays and double downs here instead of locking
+ * the Dealer. Only one action runs against a Dealer at a time, in the
+ * order submitted. The queue is drained by one BotRuntime table thread
+ * at a time, so bots at different tables never contend with each other,
+ * and a Dealer sleeping out its deal delay holds up only its own table.
+ *
+ * @author Brendan Van Allen
+ */
+public class TableQueue {
+    private static final Logger LOG = Logger.getLogger(TableQueue.class);
+
+    /** One queue per Dealer, dropped when the Dealer is */
+    private static final Map<Dealer, TableQueue> TABLES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Queue<Runnable> actions = new ConcurrentLinkedQueue<>();
+
+    /** Actions submitted but not yet run; the thread that takes it off zero drains */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Gets the queue for a table.
+     * @param dealer The table's dealer
+     * @return The table's queue
+     */
+    public static TableQueue forDealer(Dealer dealer) {
+        return TABLES.computeIfAbsent(dealer, d -> new TableQueue());
+    }
+
+    /**
+     * Submits an action to run against the dealer after those already queued.
+     * @param action The action
+     */
+    public void submit(Runnable action) {
+        actions.add(action);
+
+        // Start a drain unless one is already running
+        if(pending.getAndIncrement() == 0)
+            BotRuntime.executeAtTable(this::drain);
+    }
+
+    /**
+     * Runs queued actions in order until the queue is empty.
+     */
+    private void drain() {
+        do {
+            Runnable action = actions.poll();
+
+            try {
+                action.run();
+            }
+            catch(RuntimeException e) {
+                LOG.error("bot action failed", e);
+            }
+        } while(pending.decrementAndGet() != 0);
+    }
+}
@@ -0,0 +1,52 @@
+package charlie.bot.server;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How long a bot "thinks" before it makes a play.
+ * @author Brendan Van Allen
+ */
+public interface ThinkTime {
+    /** No thinking at all, for load tests */
+    public static final ThinkTime NONE = () -> 0L;
+
+    /**
+     * Gets the next think time.
+     * @return Delay in milliseconds
+     */
+    public long millis();
+
+    /**
+     * Thinks for the same time every turn.
+     * @param millis Delay in milliseconds
+     */
+    public static ThinkTime fixed(final long millis) {
+        return () -> millis;
+    }
+
+    /**
+     * Thinks for a time picked uniformly in [min, max).
+     * @param min Shortest delay in milliseconds
+     * @param max Longest delay in milliseconds, min for a fixed delay
+     * @throws IllegalArgumentException If min is negative or max is below min
+     */
+    public static ThinkTime uniform(final long min, final long max) {
+        if(min < 0 || max < min)
+            throw new IllegalArgumentException("bad think time range [" + min + ", " + max + ")");
+
+        if(min == max)
+            return fixed(min);
+
+        return () -> min + ThreadLocalRandom.current().nextLong(max - min);
+    }
+
+    /**
+     * Thinks for a minimum time plus an exponentially distributed time,
+     * which looks more like a person: mostly quick with the odd long pause.
+     * @param min Shortest delay in milliseconds
+     * @param mean Mean of the delay added to min, in milliseconds
+     */
+    public static ThinkTime exponential(final long min, final double mean) {
+        return () -> min + (long) (-mean * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+    }
+}
@@ -1,38 +1,133 @@
-package charlie.client;
-
-import charlie.card.Card;
-import charlie.card.Hand;
-import charlie.plugin.IAdvisor;
-import charlie.util.Play;
-
-/**
- * Implements the IAdvisor interface of Charlie.
- * Advisor gives advice to the player based on their hand
- * and the dealer's upCard. This Advisor uses the BasicStrategy
- * class to give advice.
- * 
- * @author Brendan Van Allen
- */
-public class Advisor implements IAdvisor {
-
-    @Override
-    /**
-     * Implements the advise method of the IAdvisor interface.
-     * Uses the BasicStrategy class to determine what PLAY
-     * to advise.
-     */
-    public Play advise(Hand myHand, Card upCard) {
-        try{
-            myHand.getCard(0).value();
-            myHand.getCard(1).value();
-            upCard.value();
-        }
-        catch(NullPointerException e) {
-            System.out.println("Error: myHand, a card in myHand, or upCard was null");
-        }
-        catch(IndexOutOfBoundsException e){ 
-            System.out.println("Error: There was less than 3 cards in myHand.");
-        }
-        return BasicStrategy.getPlay(myHand,upCard);
-    }
-}
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.plugin.IAdvisor;
+import charlie.util.Play;
+
+/**
+ * Implements the IAdvisor interface of Charlie.
+ * Advisor gives advice to the player based on their hand
+ * and the dealer's upCard. This Advisor uses the BasicStrategy
+ * class to give advice, compiled for the house rules, or the
+ * DeviationTable for those rules at the true count of the client's
+ * ShoeTracker when charlie.strategy.deviations is true.
+ * At tables that allow late surrender, the client asks surrenders
+ * before advise, since Play has no surrender.
+ * 
+ * @author Brendan Van Allen
+ */
+public class Advisor implements IAdvisor {
+    protected final StrategyEngine engine;
+    protected final DeviationTable deviations;
+
+    /**
+     * Constructor for the rules named by charlie.strategy.rules
+     */
+    public Advisor() {
+        this(StrategyEngine.forRules(RuleSet.getDefault()));
+    }
+
+    /**
+     * Constructor
+     * @param engine The strategy compiled for the table's rules
+     */
+    public Advisor(StrategyEngine engine) {
+        this.engine = engine;
+        this.deviations = DeviationTable.ENABLED ? DeviationTable.find(engine.getRules().getName()) : null;
+    }
+
+    @Override
+    /**
+     * Implements the advise method of the IAdvisor interface.
+     * Uses the compiled BasicStrategy table to determine what PLAY
+     * to advise.
+     */
+    public Play advise(Hand myHand, Card upCard) {
+        try{
+            myHand.getCard(0).value();
+            myHand.getCard(1).value();
+            upCard.value();
+        }
+        catch(NullPointerException e) {
+            System.out.println("Error: myHand, a card in myHand, or upCard was null");
+        }
+        catch(IndexOutOfBoundsException e){ 
+            System.out.println("Error: There was less than 3 cards in myHand.");
+        }
+        if(deviations != null)
+            return deviations.getPlay(myHand, upCard, ShoeTracker.getInstance().getTrueCount());
+
+        return engine.getPlay(myHand,upCard);
+    }
+
+    /**
+     * Tests if the player should surrender the hand instead of playing it.
+     * Play has no surrender, so a client that can surrender asks this
+     * before advise. It is only true at tables whose rules allow late
+     * surrender, and only for the first two cards.
+     * @param myHand The Player's hand
+     * @param upCard The Dealer's upCard
+     * @return True if surrendering loses less than any play
+     */
+    public boolean surrenders(Hand myHand, Card upCard) {
+        return engine.surrenders(myHand, upCard);
+    }
+
+    /**
+     * Advises a Play for a hand packed by PackedHand. Nothing is checked
+     * or allocated, so simulators and bots can call this for every hand.
+     * This plays the engine even when charlie.strategy.deviations is true,
+     * since it has no count; give the count to play the deviations.
+     * @param packedHand The Player's packed hand
+     * @param upCardValue The value of the Dealer's upCard, 1 (Ace) to 10
+     * @return A value of the enumerated type Play
+     */
+    public Play advise(int packedHand, int upCardValue) {
+        return engine.getPlay(packedHand, upCardValue);
+    }
+
+    /**
+     * Advises a Play for a hand packed by PackedHand at a true count, from
+     * the DeviationTable when charlie.strategy.deviations is true.
+     * @param packedHand The Player's packed hand
+     * @param upCardValue The value of the Dealer's upCard, 1 (Ace) to 10
+     * @param trueCount The true count the simulator or bot is keeping
+     * @return A value of the enumerated type Play
+     */
+    public Play advise(int packedHand, int upCardValue, double trueCount) {
+        if(deviations != null)
+            return deviations.getPlay(packedHand, upCardValue, trueCount);
+
+        return engine.getPlay(packedHand, upCardValue);
+    }
+
+    /**
+     * Advises Plays for a batch of packed hands in one loop, for
+     * simulations that decide many hands at a time. Like the single
+     * packed hand, this plays the engine whatever the count.
+     * @param packedHands The Player's packed hands
+     * @param upCardValues The value of the Dealer's upCard for each hand
+     * @param plays Filled with the Play for each hand
+     * @param count Number of hands, from the start of the arrays
+     */
+    public void advise(int[] packedHands, int[] upCardValues, Play[] plays, int count) {
+        engine.getPlays(packedHands, upCardValues, plays, count);
+    }
+
+    /**
+     * Advises Plays for a batch of packed hands dealt at one true count,
+     * from the DeviationTable when charlie.strategy.deviations is true.
+     * @param packedHands The Player's packed hands
+     * @param upCardValues The value of the Dealer's upCard for each hand
+     * @param trueCount The true count the hands were dealt at
+     * @param plays Filled with the Play for each hand
+     * @param count Number of hands, from the start of the arrays
+     */
+    public void advise(int[] packedHands, int[] upCardValues, double trueCount, Play[] plays, int count) {
+        if(deviations != null)
+            deviations.getPlays(packedHands, upCardValues, trueCount, plays, count);
+        else
+            engine.getPlays(packedHands, upCardValues, plays, count);
+    }
+}
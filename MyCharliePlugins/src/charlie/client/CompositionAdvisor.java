@@ -0,0 +1,45 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.plugin.IAdvisor;
+import charlie.util.Play;
+
+/**
+ * An IAdvisor that gives the best play for the cards left in the shoe,
+ * using the client's ShoeTracker and a CompositionSolver.
+ *
+ * Until the tracker has seen a game it knows nothing about the shoe, so
+ * it gives the BasicStrategy play instead.
+ *
+ * @author Brendan Van Allen
+ */
+public class CompositionAdvisor implements IAdvisor {
+    protected final ShoeTracker tracker;
+    protected final CompositionSolver solver;
+
+    /**
+     * Constructor for the client's shared ShoeTracker
+     */
+    public CompositionAdvisor() {
+        this(ShoeTracker.getInstance(), new CompositionSolver());
+    }
+
+    /**
+     * Constructor
+     * @param tracker Tracks the cards left in the shoe
+     * @param solver Works out the plays
+     */
+    public CompositionAdvisor(ShoeTracker tracker, CompositionSolver solver) {
+        this.tracker = tracker;
+        this.solver = solver;
+    }
+
+    @Override
+    public Play advise(Hand myHand, Card upCard) {
+        if(tracker.getCardsRemaining() <= 0)
+            return StrategyEngine.BASIC.getPlay(myHand, upCard);
+
+        return solver.getPlay(CompositionSolver.shoe(tracker), myHand, upCard);
+    }
+}
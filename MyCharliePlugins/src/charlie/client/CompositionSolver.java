@@ -0,0 +1,413 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.util.Play;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Finds the best play for the cards actually left in the shoe.
+ *
+ * The solver works out the expected value of staying, hitting, doubling
+ * and splitting under Charlie's house rules:
+ *      1. Dealer stands on all 17s and has already checked for blackjack.
+ *      2. A five card Charlie pays 2:1 as soon as it is dealt.
+ *      3. A hand at 21 stands.
+ *      4. Split Aces get one card each.
+ * A solver for another RuleSet has the dealer hit soft 17 or the player
+ * not double after a split if those rules say so. The deck count is
+ * in the shoe it is asked about.
+ *
+ * The dealer's chances of ending on 17 through 21 or busting are exact for
+ * the shoe: every way the dealer can draw is followed, taking each card out
+ * as it is drawn. Draws that reach the same cards in a different order are
+ * only worked out once. The results are cached by upCard and shoe, so
+ * asking again about the same shoe, e.g. staying vs. doubling, or the same
+ * decision from another plugin, costs a map lookup.
+ *
+ * The player's own draws use the shoe as it is when asked, without taking
+ * out the cards the player would draw. Over a shoe of a deck or more this
+ * is a very small error and keeps each decision well under a millisecond.
+ *
+ * A shoe is an int[11] of the cards not yet seen by value, Ace = 1 through
+ * ten valued cards = 10.
+ *
+ * @author Brendan Van Allen
+ */
+public class CompositionSolver {
+    /** Index in a dealer distribution of each final total, 17 to 21, and of a bust */
+    public final static int BUST = 5;
+
+    public final static int CACHE_SIZE = 1024;
+    public final static double CHARLIE_PAYS = 2.0;
+
+    /** Dealer distributions for each upCard, by shoe */
+    protected final Map<Long, double[]>[] cache;
+
+    protected long hits;
+    protected long misses;
+
+    protected final boolean hitSoft17;
+    protected final boolean doubleAfterSplit;
+
+    /** The shoe and dealer distribution for the decision being solved */
+    private int[] shoe;
+    private int left;
+    private double[] dealer;
+
+    /** Player EVs already worked out for the decision, by hard total, soft and cards */
+    private final double[] best = new double[32 << 4];
+
+    /**
+     * Constructor for Charlie's rules
+     */
+    public CompositionSolver() {
+        this(RuleSet.CHARLIE);
+    }
+
+    /**
+     * Constructor
+     * @param rules The house rules
+     */
+    @SuppressWarnings({"unchecked", "rawtypes", "serial"})
+    public CompositionSolver(RuleSet rules) {
+        hitSoft17 = rules.dealerHitsSoft17();
+        doubleAfterSplit = rules.canDoubleAfterSplit();
+        cache = new Map[11];
+
+        for(int up = 1; up <= 10; up++)
+            cache[up] = new LinkedHashMap<Long, double[]>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, double[]> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+    }
+
+    /**
+     * Gets the best play.
+     * @param shoe The cards not yet seen, with the hand and upCard taken out
+     * @param hand The player's hand
+     * @param upCard The dealer's upCard
+     * @return The play with the highest EV
+     */
+    public Play getPlay(int[] shoe, Hand hand, Card upCard) {
+        double[] evs = solve(shoe, hand, upCard);
+
+        Play play = Play.STAY;
+        for(Play option : Play.values()) {
+            if(evs[option.ordinal()] > evs[play.ordinal()])
+                play = option;
+        }
+
+        return play;
+    }
+
+    /**
+     * Works out the EV of each play, per unit of the original bet.
+     * @param shoe The cards not yet seen, with the hand and upCard taken out
+     * @param hand The player's hand
+     * @param upCard The dealer's upCard
+     * @return EVs by Play ordinal, NaN for plays the hand can't make
+     */
+    public synchronized double[] solve(int[] shoe, Hand hand, Card upCard) {
+        double[] evs = new double[Play.values().length];
+        Arrays.fill(evs, Double.NaN);
+
+        this.shoe = shoe;
+        this.left = count(shoe);
+        this.dealer = dealer(shoe, upCard.value());
+        Arrays.fill(best, Double.NaN);
+
+        int hard = 0;
+        boolean soft = false;
+        for(int i = 0; i < hand.size(); i++) {
+            hard += hand.getCard(i).value();
+            soft |= hand.getCard(i).isAce();
+        }
+
+        int n = hand.size();
+
+        evs[Play.STAY.ordinal()] = stay(value(hard, soft));
+
+        if(value(hard, soft) < 21) {
+            evs[Play.HIT.ordinal()] = hit(hard, soft, n);
+
+            if(n == 2)
+                evs[Play.DOUBLE_DOWN.ordinal()] = dubble(hard, soft);
+
+            if(n == 2 && hand.getCard(0).getRank() == hand.getCard(1).getRank())
+                evs[Play.SPLIT.ordinal()] = split(hand.getCard(0).value());
+        }
+
+        return evs;
+    }
+
+    /**
+     * Gets the dealer's chances of each final total given no blackjack.
+     * @param shoe The cards not yet seen, with the upCard taken out
+     * @param up The upCard's value
+     * @return Chances of 17, 18, 19, 20, 21 and a bust
+     */
+    public synchronized double[] dealer(int[] shoe, int up) {
+        long key = key(shoe);
+
+        double[] dist = key < 0 ? null : cache[up].get(key);
+        if(dist != null) {
+            hits++;
+            return dist;
+        }
+
+        misses++;
+        dist = new Dealer(shoe, up, hitSoft17).play();
+
+        if(key >= 0)
+            cache[up].put(key, dist);
+
+        return dist;
+    }
+
+    /**
+     * EV of standing on a value against the dealer distribution.
+     */
+    private double stay(int value) {
+        if(value > 21)
+            return -1;
+
+        double ev = dealer[BUST];
+        for(int total = 17; total <= 21; total++) {
+            if(total < value)
+                ev += dealer[total - 17];
+            else if(total > value)
+                ev -= dealer[total - 17];
+        }
+
+        return ev;
+    }
+
+    /**
+     * EV of the best play after the hand reaches a state, hitting or staying.
+     */
+    private double best(int hard, boolean soft, int n) {
+        int value = value(hard, soft);
+
+        if(value > 21)
+            return -1;
+        if(n == 5)
+            return CHARLIE_PAYS;
+        if(value == 21)
+            return stay(21);
+
+        int index = (hard << 4) | (soft ? 8 : 0) | n;
+        if(Double.isNaN(best[index]))
+            best[index] = Math.max(stay(value), hit(hard, soft, n));
+
+        return best[index];
+    }
+
+    private double hit(int hard, boolean soft, int n) {
+        double ev = 0;
+        for(int v = 1; v <= 10; v++) {
+            if(shoe[v] > 0)
+                ev += shoe[v] * best(hard + v, soft || v == 1, n + 1);
+        }
+        return ev / left;
+    }
+
+    private double dubble(int hard, boolean soft) {
+        double ev = 0;
+        for(int v = 1; v <= 10; v++) {
+            if(shoe[v] > 0)
+                ev += shoe[v] * stay(value(hard + v, soft || v == 1));
+        }
+        return 2 * ev / left;
+    }
+
+    /**
+     * EV of splitting a pair, both hands played the same way.
+     */
+    private double split(int v) {
+        double ev = 0;
+        for(int c = 1; c <= 10; c++) {
+            if(shoe[c] == 0)
+                continue;
+
+            int hard = v + c;
+            boolean soft = v == 1 || c == 1;
+
+            double hand;
+            if(v == 1)
+                hand = stay(value(hard, soft));
+            else if(value(hard, soft) == 21)
+                hand = stay(21);
+            else if(doubleAfterSplit)
+                hand = Math.max(best(hard, soft, 2), dubble(hard, soft));
+            else
+                hand = best(hard, soft, 2);
+
+            ev += shoe[c] * hand;
+        }
+        return 2 * ev / left;
+    }
+
+    /**
+     * Follows every way the dealer can draw from one shoe.
+     */
+    private static class Dealer {
+        private final int[] shoe;
+        private final int up;
+        private final boolean hitSoft17;
+
+        /** Distributions by the cards the dealer drew after the upCard */
+        private final Map<Long, double[]> drawn = new HashMap<>();
+
+        Dealer(int[] shoe, int up, boolean hitSoft17) {
+            this.shoe = shoe.clone();
+            this.up = up;
+            this.hitSoft17 = hitSoft17;
+        }
+
+        double[] play() {
+            double[] dist = new double[6];
+            int left = count(shoe);
+
+            // The dealer checked the hole card, so it can't make blackjack
+            int blackjack = up == 1 ? 10 : up == 10 ? 1 : 0;
+            if(blackjack != 0)
+                left -= shoe[blackjack];
+
+            for(int v = 1; v <= 10; v++) {
+                if(v == blackjack || shoe[v] == 0)
+                    continue;
+
+                double p = (double) shoe[v] / left;
+
+                shoe[v]--;
+                double[] next = draw(up + v, up == 1 || v == 1, 1L << (5 * (v - 1)));
+                shoe[v]++;
+
+                for(int i = 0; i < dist.length; i++)
+                    dist[i] += p * next[i];
+            }
+
+            return dist;
+        }
+
+        /**
+         * Gets the distribution from a dealer hand.
+         * @param hard The hand's total with Aces as 1
+         * @param soft True if it holds an Ace
+         * @param cards Counts of each value drawn after the upCard, five bits each
+         */
+        private double[] draw(int hard, boolean soft, long cards) {
+            int value = value(hard, soft);
+            double[] dist = new double[6];
+
+            if(value > 21) {
+                dist[BUST] = 1;
+                return dist;
+            }
+            // A soft 17 counts its Ace as 11 over a hard 7
+            if(value >= 17 && !(hitSoft17 && soft && hard == 7)) {
+                dist[value - 17] = 1;
+                return dist;
+            }
+
+            double[] known = drawn.get(cards);
+            if(known != null)
+                return known;
+
+            int left = count(shoe);
+            for(int v = 1; v <= 10; v++) {
+                if(shoe[v] == 0)
+                    continue;
+
+                double p = (double) shoe[v] / left;
+
+                shoe[v]--;
+                double[] next = draw(hard + v, soft || v == 1, cards + (1L << (5 * (v - 1))));
+                shoe[v]++;
+
+                for(int i = 0; i < dist.length; i++)
+                    dist[i] += p * next[i];
+            }
+
+            drawn.put(cards, dist);
+            return dist;
+        }
+    }
+
+    /**
+     * Gets the cache's hit count, for instrumentation.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets a full shoe.
+     * @param decks Number of decks
+     */
+    public static int[] shoe(int decks) {
+        int[] shoe = new int[11];
+        for(int v = 1; v <= 9; v++)
+            shoe[v] = 4 * decks;
+        shoe[10] = 16 * decks;
+        return shoe;
+    }
+
+    /**
+     * Gets the cards not yet seen from a ShoeTracker.
+     * @param tracker The tracker
+     */
+    public static int[] shoe(ShoeTracker tracker) {
+        int[] shoe = new int[11];
+        for(int rank = Card.ACE; rank <= Card.KING; rank++)
+            shoe[Math.min(rank, 10)] += Math.max(0, tracker.getRemaining(rank));
+        return shoe;
+    }
+
+    /**
+     * Takes a card out of a shoe.
+     */
+    public static void remove(int[] shoe, Card card) {
+        shoe[card.value()]--;
+    }
+
+    static int value(int hard, boolean soft) {
+        return soft && hard + 10 <= 21 ? hard + 10 : hard;
+    }
+
+    static int count(int[] shoe) {
+        int count = 0;
+        for(int v = 1; v <= 10; v++)
+            count += shoe[v];
+        return count;
+    }
+
+    /**
+     * Packs a shoe into a cache key: six bits for each of Ace through 9
+     * and eight for tens, enough for fifteen decks.
+     * @return The key, or -1 if the shoe is too big to pack
+     */
+    static long key(int[] shoe) {
+        long key = 0;
+        for(int v = 1; v <= 9; v++) {
+            if(shoe[v] > 63)
+                return -1;
+            key = (key << 6) | shoe[v];
+        }
+
+        if(shoe[10] > 255)
+            return -1;
+
+        return (key << 8) | shoe[10];
+    }
+}
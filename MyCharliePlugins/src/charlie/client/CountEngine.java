@@ -0,0 +1,79 @@
+package charlie.client;
+
+import charlie.card.Card;
+
+/**
+ * Keeps the running count of a shoe for one CountingSystem.
+ *
+ * This is the counting shared by HiLoCounter and CountingTrap, so the
+ * two plugins always count the same way. Counting a card is one lookup
+ * in the system's tag table.
+ *
+ * The system is picked with the charlie.counter.system property, by name
+ * (e.g. "Wong Halves") or constant (e.g. WONG_HALVES). It defaults to Hi-Lo.
+ *
+ * @author Brendan Van Allen
+ */
+public class CountEngine {
+    public final static String SYSTEM_PROPERTY = "charlie.counter.system";
+
+    protected final CountingSystem system;
+
+    /** Running count in units of 1/scale */
+    protected int running;
+
+    /**
+     * Constructor for the system set by the charlie.counter.system property
+     */
+    public CountEngine() {
+        this(CountingSystem.find(System.getProperty(SYSTEM_PROPERTY)));
+    }
+
+    /**
+     * Constructor
+     * @param system The counting system
+     */
+    public CountEngine(CountingSystem system) {
+        this.system = system;
+    }
+
+    /**
+     * Starts counting a fresh shoe.
+     * @param decks Number of decks in the shoe
+     */
+    public void reset(int decks) {
+        running = system.initialCount(decks);
+    }
+
+    /**
+     * Counts a card dealt from the shoe.
+     * @param card The card
+     */
+    public void count(Card card) {
+        running += system.tag(card.getRank());
+    }
+
+    /**
+     * Gets the running count.
+     */
+    public double getRunningCount() {
+        return (double) running / system.getScale();
+    }
+
+    /**
+     * Gets the true count, the running count per deck left. Unbalanced
+     * systems are already adjusted for the shoe by their initial count,
+     * so their true count is the running count.
+     * @param decks Decks left in the shoe
+     */
+    public double trueCount(double decks) {
+        if(!system.isBalanced())
+            return getRunningCount();
+
+        return getRunningCount() / decks;
+    }
+
+    public CountingSystem getSystem() {
+        return system;
+    }
+}
@@ -0,0 +1,106 @@
+package charlie.client;
+
+/**
+ * Card counting systems as tag tables.
+ *
+ * Each system is a row of tags indexed by rank, Ace = 1 through King = 13,
+ * so counting a card is one array read. Tags are stored in units of
+ * 1/scale so systems with half point tags, like Wong Halves, still count
+ * in ints. Adding a system is adding a row.
+ *
+ * @author Brendan Van Allen
+ */
+public enum CountingSystem {
+    //                           scale  balanced      A   2   3   4   5   6   7   8   9  10   J   Q   K
+    HI_LO      ("Hi-Lo",         1, true,  tags(     -1,  1,  1,  1,  1,  1,  0,  0,  0, -1)),
+    KO         ("KO",            1, false, tags(     -1,  1,  1,  1,  1,  1,  1,  0,  0, -1)),
+    HI_OPT_I   ("Hi-Opt I",      1, true,  tags(      0,  0,  1,  1,  1,  1,  0,  0,  0, -1)),
+    HI_OPT_II  ("Hi-Opt II",     1, true,  tags(      0,  1,  1,  2,  2,  1,  1,  0,  0, -2)),
+    OMEGA_II   ("Omega II",      1, true,  tags(      0,  1,  1,  2,  2,  2,  1,  0, -1, -2)),
+    ZEN        ("Zen",           1, true,  tags(     -1,  1,  1,  2,  2,  2,  1,  0,  0, -2)),
+    WONG_HALVES("Wong Halves",   2, true,  tags(     -2,  1,  2,  2,  3,  2,  1,  0, -1, -2));
+
+    private final String name;
+    private final int scale;
+    private final boolean balanced;
+    private final int[] tags;
+
+    CountingSystem(String name, int scale, boolean balanced, int[] tags) {
+        this.name = name;
+        this.scale = scale;
+        this.balanced = balanced;
+        this.tags = tags;
+    }
+
+    /**
+     * Builds the tag table from the tags for Ace through 10, giving the
+     * face cards the 10's tag.
+     */
+    private static int[] tags(int... aceToTen) {
+        int[] tags = new int[14];
+
+        System.arraycopy(aceToTen, 0, tags, 1, 10);
+        tags[11] = tags[12] = tags[13] = aceToTen[9];
+
+        return tags;
+    }
+
+    /**
+     * Gets the tag of a rank.
+     * @param rank Ace = 1 through King = 13
+     * @return The tag in units of 1/scale
+     */
+    public int tag(int rank) {
+        return tags[rank];
+    }
+
+    /**
+     * Gets how many units make one point of count.
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Tests if a full deck counts to zero. Unbalanced systems start
+     * below zero instead, so the running count can be used as is.
+     */
+    public boolean isBalanced() {
+        return balanced;
+    }
+
+    /**
+     * Gets the running count a fresh shoe starts at.
+     * @param decks Number of decks in the shoe
+     * @return The count in units of 1/scale
+     */
+    public int initialCount(int decks) {
+        if(balanced)
+            return 0;
+
+        // A deck's tags add up to what the shoe has to start below zero by
+        int deck = 0;
+        for(int rank = 1; rank <= 13; rank++)
+            deck += 4 * tags[rank];
+
+        return -deck * (decks - 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Finds a system by its name or constant, e.g. "Wong Halves" or WONG_HALVES.
+     * @param name The system's name
+     * @return The system, or HI_LO if there is no such system
+     */
+    public static CountingSystem find(String name) {
+        for(CountingSystem system : values()) {
+            if(system.name.equalsIgnoreCase(name) || system.name().equalsIgnoreCase(name))
+                return system;
+        }
+
+        return HI_LO;
+    }
+}
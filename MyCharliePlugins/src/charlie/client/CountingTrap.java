@@ -10,16 +10,14 @@ import org.apache.log4j.Logger;
 
 /**
  * Counts card using the Hi-Lo (1963) system and calculates
- * bets using Kelly's Criterion.
+ * bets using Kelly's Criterion. The counting is done by the
+ * client's ShoeTracker, so charlie.counter.system picks another system.
  * @author Brendan Van Allen
  */
 public class CountingTrap implements ITrap{
-    protected int decksInShoe;
-    protected int cardsInShoe;
-    protected int runningCount = 0;
+    protected final ShoeTracker tracker = ShoeTracker.getInstance();
     protected double trueCount;
     protected double bet;
-    protected boolean shufflePending = false;
     private final Logger LOG = Logger.getLogger(CountingTrap.class);
     
     @Override
@@ -48,15 +46,8 @@ public class CountingTrap implements ITrap{
     public void onReceive(Message msg) {
         
         if(msg instanceof GameStart) {       
-            // Update the shoe size
-            cardsInShoe = ((GameStart) msg).shoeSize();
-            updateShoeSize();
-            
-            // Check if there was a shuffle
-            if(shufflePending){
-                shufflePending = false;
-                runningCount = 0;
-            }
+            // The tracker syncs the shoe size and refills it if there was a shuffle
+            tracker.startGame(this, ((GameStart) msg).getHids(), ((GameStart) msg).shoeSize());
         }
         
         else if (msg instanceof Deal) {
@@ -64,42 +55,22 @@ public class CountingTrap implements ITrap{
             // Ignore deal message if the card is null
             if(((Deal) msg).getCard() != null) {
                 
-                // Update the shoe size
-                cardsInShoe--;
-                updateShoeSize();
+                // The tracker takes the card out of the shoe and counts it,
+                // unless the card counter already has
+                tracker.deal(this, ((Deal) msg).getHid(), ((Deal) msg).getCard());
                 
-                // Check what card was dealt and update the runningCount
-                int cardRank = ((Deal) msg).getCard().getRank();
-                if(cardRank > 9 || cardRank == 1) 
-                    runningCount--;
-                else if (cardRank > 1 && cardRank < 7)
-                    runningCount++;
-                
-                // Update trueCount and bet with new runningCount
-                trueCount = (double) runningCount / (double) decksInShoe;
+                // Update trueCount and bet with the exact decks remaining
+                trueCount = tracker.getTrueCount();
                 bet = round(Math.max(1,trueCount+1));
                 
-                LOG.info("shoe size: "+cardsInShoe+" running count: "+runningCount
+                LOG.info("shoe size: "+tracker.getCardsRemaining()+" running count: "+tracker.getRunningCount()
                          +" true count: "+trueCount+" bet: "+bet+" (chips)");
             }
         }
         
         else if (msg instanceof Shuffle) {          
-            // Set flag so we know to reset counts at next GameStart
-            shufflePending = true;
+            // Let the tracker know to refill the shoe at next GameStart
+            tracker.shufflePending(this);
         }
     }
-    
-    /**
-     * Helper method to recalculate the number of decks remaining
-     * in the shoe.
-     */
-    private void updateShoeSize(){
-        // shoeSize() gives the number of cards in the shoe, so must convert to number of decks
-        decksInShoe = round((cardsInShoe / 52));
-            
-        // Since we can't have 0 decks in the shoe, we must correct
-        if(decksInShoe == 0)
-            decksInShoe = 1;
-    }
 }
@@ -0,0 +1,346 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.util.Play;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.log4j.Logger;
+
+/**
+ * Strategy tables indexed by the true count.
+ *
+ * A table holds one decision table for each true count bucket, -10 to +10,
+ * so the play can change with the count the way the basic strategy can't.
+ * Each cell is packed into 2 bits, HIT, STAY, DOUBLE_DOWN or SPLIT, and
+ * only the rows a count can change are kept:
+ *      HARD   5 through 20
+ *      SOFT   Ace and 2 through 9
+ *      PAIR   Aces through tens
+ *      MULTI  6 through 20
+ * That is 490 cells, or sixteen longs, per bucket and under 3 KB for all
+ * 21 buckets, so every table stays in cache. A lookup is a bucket, a row
+ * and a shift, with no allocations. Hands outside the rows, e.g. a hard
+ * 4 after a split, get the play of the StrategyEngine for the table's rules.
+ *
+ * The tables are worked out offline by charlie.sim.DeviationGenerator, one
+ * for each configured RuleSet spec and named after the rule set, and
+ * loaded from the deviations.bin resource next to this class the first time
+ * they are asked for. Advisor and RightBot use the table for their
+ * engine's rules when the charlie.strategy.deviations property is true.
+ *
+ * @author Brendan Van Allen
+ */
+public final class DeviationTable {
+    private static final Logger LOG = Logger.getLogger(DeviationTable.class);
+
+    public final static String PROPERTY = "charlie.strategy.deviations";
+    public final static String RESOURCE = "deviations.bin";
+
+    public final static int MIN_COUNT = -10;
+    public final static int MAX_COUNT = 10;
+    public final static int BUCKETS = MAX_COUNT - MIN_COUNT + 1;
+
+    /** First and last total of the rows kept for each hand class */
+    private final static int[] FIRST = { 5, 2, 1, 6 };
+    private final static int[] LAST = { 20, 9, 10, 20 };
+    private final static int[] ROW = new int[4];
+
+    public final static int CELLS;
+    public final static int WORDS_PER_BUCKET;
+
+    /** The play stored in each 2 bit code */
+    private final static Play[] PLAYS = { Play.HIT, Play.STAY, Play.DOUBLE_DOWN, Play.SPLIT };
+
+    private final static int MAGIC = 0x43484456;
+    private final static int VERSION = 1;
+
+    static {
+        int rows = 0;
+        for(int cls = StrategyEngine.HARD; cls <= StrategyEngine.MULTI; cls++) {
+            ROW[cls] = rows;
+            rows += LAST[cls] - FIRST[cls] + 1;
+        }
+
+        CELLS = rows * 10;
+        WORDS_PER_BUCKET = (CELLS * 2 + 63) / 64;
+    }
+
+    /** True if Advisor and RightBot should play the count */
+    public final static boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private final String name;
+    private final StrategyEngine engine;
+    private final long[] words = new long[BUCKETS * WORDS_PER_BUCKET];
+
+    /**
+     * Constructor for a table that plays the basic strategy at every count.
+     * @param name The table's name, the configured rule set it is for
+     */
+    public DeviationTable(String name) {
+        this(name, StrategyEngine.forRules(RuleSet.find(name)));
+    }
+
+    /**
+     * Constructor for a table that plays an engine at every count.
+     * @param name The table's name, e.g. the rules it was worked out for
+     * @param engine The strategy for the rules, also played for hands without a row
+     */
+    public DeviationTable(String name, StrategyEngine engine) {
+        this.name = name;
+        this.engine = engine;
+
+        for(int bucket = 0; bucket < BUCKETS; bucket++)
+            for(int cls = StrategyEngine.HARD; cls <= StrategyEngine.MULTI; cls++)
+                for(int total = FIRST[cls]; total <= LAST[cls]; total++)
+                    for(int up = 1; up <= 10; up++)
+                        set(bucket + MIN_COUNT, cls, total, up, engine.lookup(cls, total, up));
+    }
+
+    /**
+     * Gets the play for a hand at a true count.
+     * @param myHand The Player's hand
+     * @param upCard The Dealer's upCard
+     * @param trueCount The true count, rounded to the nearest bucket
+     * @return A value of the enumerated type Play
+     */
+    public Play getPlay(Hand myHand, Card upCard, double trueCount) {
+        int key = StrategyEngine.classify(myHand);
+
+        return lookup(key >> StrategyEngine.CLASS_KEY_SHIFT, key & StrategyEngine.MAX_TOTAL,
+                upCard.value(), bucket(trueCount));
+    }
+
+    /**
+     * Gets the play for a hand packed by PackedHand at a true count,
+     * without allocating anything.
+     * @param packedHand The Player's packed hand
+     * @param upCardValue The value of the Dealer's upCard, 1 (Ace) to 10
+     * @param trueCount The true count, rounded to the nearest bucket
+     * @return A value of the enumerated type Play
+     */
+    public Play getPlay(int packedHand, int upCardValue, double trueCount) {
+        int key = StrategyEngine.classify(packedHand);
+
+        return lookup(key >> StrategyEngine.CLASS_KEY_SHIFT, key & StrategyEngine.MAX_TOTAL,
+                upCardValue, bucket(trueCount));
+    }
+
+    /**
+     * Gets the plays for a batch of packed hands at one true count.
+     * @param packedHands The Player's hands, packed by PackedHand
+     * @param upCardValues The value of the Dealer's upCard for each hand, 1 (Ace) to 10
+     * @param trueCount The true count, rounded to the nearest bucket
+     * @param plays Filled with the Play for each hand
+     * @param count Number of hands, from the start of the arrays
+     */
+    public void getPlays(int[] packedHands, int[] upCardValues, double trueCount, Play[] plays, int count) {
+        int bucket = bucket(trueCount);
+
+        for(int i = 0; i < count; i++) {
+            int key = StrategyEngine.classify(packedHands[i]);
+            plays[i] = lookup(key >> StrategyEngine.CLASS_KEY_SHIFT, key & StrategyEngine.MAX_TOTAL,
+                    upCardValues[i], bucket);
+        }
+    }
+
+    /**
+     * Looks up a play.
+     * @param handClass One of StrategyEngine's HARD, SOFT, PAIR or MULTI
+     * @param total The total for the hand class
+     * @param upCardValue The value of the Dealer's upCard, 1 (Ace) to 10
+     * @param count The true count, MIN_COUNT to MAX_COUNT
+     * @return A value of the enumerated type Play
+     */
+    public Play lookup(int handClass, int total, int upCardValue, int count) {
+        int cell = cell(handClass, total, upCardValue);
+        if(cell < 0)
+            return engine.lookup(handClass, total, upCardValue);
+
+        int index = (count - MIN_COUNT) * WORDS_PER_BUCKET * 32 + cell;
+
+        return PLAYS[(int) (words[index >>> 5] >>> ((index & 31) << 1)) & 3];
+    }
+
+    /**
+     * Sets a play. Only the generator and tests should change a table.
+     * @param count The true count, MIN_COUNT to MAX_COUNT
+     * @param handClass One of StrategyEngine's HARD, SOFT, PAIR or MULTI
+     * @param total The total for the hand class
+     * @param upCardValue The value of the Dealer's upCard, 1 (Ace) to 10
+     * @param play HIT, STAY, DOUBLE_DOWN or SPLIT
+     */
+    public void set(int count, int handClass, int total, int upCardValue, Play play) {
+        int cell = cell(handClass, total, upCardValue);
+        if(cell < 0)
+            throw new IllegalArgumentException("No row for class " + handClass + " total " + total);
+
+        long code = code(play);
+        int index = (count - MIN_COUNT) * WORDS_PER_BUCKET * 32 + cell;
+        int shift = (index & 31) << 1;
+
+        words[index >>> 5] = (words[index >>> 5] & ~(3L << shift)) | (code << shift);
+    }
+
+    /**
+     * Tests if a hand class and total have a row in the table.
+     */
+    public static boolean hasRow(int handClass, int total) {
+        return total >= FIRST[handClass] && total <= LAST[handClass];
+    }
+
+    public static int firstTotal(int handClass) {
+        return FIRST[handClass];
+    }
+
+    public static int lastTotal(int handClass) {
+        return LAST[handClass];
+    }
+
+    /**
+     * Rounds a true count to its bucket.
+     */
+    public static int bucket(double trueCount) {
+        long count = Math.round(trueCount);
+
+        return (int) Math.max(MIN_COUNT, Math.min(MAX_COUNT, count));
+    }
+
+    private static int cell(int handClass, int total, int upCardValue) {
+        if(!hasRow(handClass, total))
+            return -1;
+
+        return (ROW[handClass] + total - FIRST[handClass]) * 10 + upCardValue - 1;
+    }
+
+    private static int code(Play play) {
+        for(int code = 0; code < PLAYS.length; code++)
+            if(PLAYS[code] == play)
+                return code;
+
+        throw new IllegalArgumentException("Can't store " + play);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Writes tables in the format of the deviations.bin resource.
+     * @param tables The tables
+     * @param out Where to write them
+     */
+    public static void write(List<DeviationTable> tables, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(MIN_COUNT);
+        data.writeByte(MAX_COUNT);
+        data.writeShort(CELLS);
+        data.writeShort(tables.size());
+
+        for(DeviationTable table : tables) {
+            data.writeUTF(table.name);
+            for(long word : table.words)
+                data.writeLong(word);
+        }
+
+        data.flush();
+    }
+
+    /**
+     * Reads tables written by write.
+     * @param in Where to read them from
+     * @return The tables
+     * @throws IOException If the tables are not in this version's format
+     */
+    public static List<DeviationTable> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+
+        if(data.readInt() != MAGIC)
+            throw new IOException("Not a deviation table");
+
+        if(data.readByte() != VERSION || data.readByte() != MIN_COUNT ||
+           data.readByte() != MAX_COUNT || data.readShort() != CELLS)
+            throw new IOException("Deviation tables are for a different layout");
+
+        int count = data.readShort();
+        List<DeviationTable> tables = new ArrayList<>(count);
+
+        for(int i = 0; i < count; i++) {
+            DeviationTable table = new DeviationTable(data.readUTF());
+            for(int w = 0; w < table.words.length; w++)
+                table.words[w] = data.readLong();
+
+            tables.add(table);
+        }
+
+        return tables;
+    }
+
+    /**
+     * Gets the tables loaded from the resource.
+     */
+    public static List<DeviationTable> getTables() {
+        return Loaded.TABLES;
+    }
+
+    /**
+     * Gets the first table loaded from the resource, or one that plays the
+     * basic strategy at every count if there are none.
+     */
+    public static DeviationTable getDefault() {
+        return Loaded.DEFAULT;
+    }
+
+    /**
+     * Finds a loaded table by name.
+     * @param name The table's name, e.g. StrategyEngine.getRules().getName()
+     * @return The table, or one that plays the basic strategy of the named
+     *         rule set at every count if there is no such table
+     */
+    public static DeviationTable find(String name) {
+        for(DeviationTable table : Loaded.TABLES)
+            if(table.name.equalsIgnoreCase(name))
+                return table;
+
+        return Loaded.BASIC.computeIfAbsent(name.toLowerCase(), key -> {
+            LOG.warn("No deviations for " + name + ", playing its basic strategy at every count");
+            return new DeviationTable(key);
+        });
+    }
+
+    /**
+     * Holds the tables so the resource is read the first time they are used.
+     */
+    private static class Loaded {
+        static final List<DeviationTable> TABLES = load();
+        static final DeviationTable DEFAULT = TABLES.isEmpty() ? new DeviationTable("basic") : TABLES.get(0);
+
+        /** Tables for rule sets without deviations, by name */
+        static final Map<String, DeviationTable> BASIC = new ConcurrentHashMap<>();
+
+        private static List<DeviationTable> load() {
+            try(InputStream in = DeviationTable.class.getResourceAsStream(RESOURCE)) {
+                if(in != null)
+                    return Collections.unmodifiableList(read(in));
+
+                LOG.warn("No " + RESOURCE + ", playing the basic strategy at every count");
+            }
+            catch(IOException e) {
+                LOG.error("Could not load " + RESOURCE, e);
+            }
+
+            return Collections.<DeviationTable>emptyList();
+        }
+    }
+}
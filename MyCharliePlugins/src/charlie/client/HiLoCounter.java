@@ -11,15 +11,17 @@ import java.awt.Graphics2D;
  * system for BlackJack. This class implements the ICardCounter
  * plugin for Charlie.
  * 
+ * The counting itself is done by the client's ShoeTracker, so any
+ * CountingSystem can be shown by setting charlie.counter.system.
+ * 
  * @author Brendan Van Allen
  */
 public class HiLoCounter implements ICardCounter {
     
-    protected int runningCount = 0;
+    protected final ShoeTracker tracker = ShoeTracker.getInstance();
     protected double decksInShoe = 0.0;
     protected double trueCount = 0;
     protected int betAmt = 1;
-    protected boolean shufflePending = false;
     
     protected Font font = new Font("Arial", Font.BOLD, 16);
     public final static int X = 500;
@@ -32,19 +34,11 @@ public class HiLoCounter implements ICardCounter {
      * @param shoeSize The number of cards in the shoe
      */
     public void startGame(int shoeSize) {
-        // shoeSize gives use the number of cards in the shoe, so we must convert this
-        decksInShoe = Math.rint(shoeSize / 52.0);
-        
-        // If the shoe has less than 32 cards, the rint method will round down to 0, so we must fix that
-        if(decksInShoe == 0.0)
-            decksInShoe = 1.0;
+        // The tracker refills the shoe if it was shuffled
+        tracker.startGame(this, shoeSize);
         
-        // Check if we need reset our counts because of a shuffle
-        if(shufflePending) {
-            runningCount = 0;
-            trueCount = 0;
-            shufflePending = false;
-        }
+        decksInShoe = tracker.getDecksRemaining();
+        trueCount = tracker.getTrueCount();
     }
 
     @Override
@@ -57,15 +51,12 @@ public class HiLoCounter implements ICardCounter {
      */
     public void update(Card card) {
         
-        // 10, J, Q, K, and A all count as -1.
-        if(card.getRank() >= 10 || card.isAce())
-            runningCount--;
+        // The tracker takes the card out of the shoe and counts it,
+        // unless another plugin already has
+        tracker.deal(this, card);
         
-        // 2-6 count as +1.
-        else if(card.getRank() >= 2 && card.getRank() <= 6)
-            runningCount++;
-        
-        trueCount = runningCount / decksInShoe;
+        decksInShoe = tracker.getDecksRemaining();
+        trueCount = tracker.getTrueCount();
         betAmt = (int) Math.max(1, 1 + trueCount);
     }
 
@@ -76,22 +67,24 @@ public class HiLoCounter implements ICardCounter {
      * @param g Graphics context referencing the casino table.
      */
     public void render(Graphics2D g) {
-        // Draw Hi-Lo
+        double runningCount = tracker.getRunningCount();
+        
+        // Draw the counting system's name
         g.setFont(font);
         g.setColor(Color.WHITE);
-        g.drawString("Hi-Lo", X, Y);
-        g.drawString("Shoe size: " + decksInShoe, X, Y+20);
+        g.drawString(tracker.getSystem().getName(), X, Y);
+        g.drawString(String.format("Shoe size: %.2f", decksInShoe), X, Y+20);
         
         if(runningCount > 0) {
             g.setColor(Color.GREEN);
-            g.drawString("Running count: +" + runningCount, X, Y+40);
+            g.drawString("Running count: +" + show(runningCount), X, Y+40);
         }
         else if(runningCount < 0) { 
             g.setColor(Color.RED);
-            g.drawString("Running count: " + runningCount, X, Y+40);
+            g.drawString("Running count: " + show(runningCount), X, Y+40);
         } else {
             g.setColor(Color.WHITE);
-            g.drawString("Running count: " + runningCount, X, Y+40);
+            g.drawString("Running count: " + show(runningCount), X, Y+40);
         }
         
         
@@ -118,7 +111,20 @@ public class HiLoCounter implements ICardCounter {
      * shuffled after the current game.
      */
     public void shufflePending() {
-        shufflePending = true;
+        tracker.shufflePending(this);
+    }
+    
+    /**
+     * Shows a count without a decimal point when it is whole,
+     * since most systems only count in whole points.
+     * 
+     * @param count The count to show
+     */
+    private String show(double count) {
+        if(count == Math.rint(count))
+            return Long.toString((long) count);
+        
+        return Double.toString(count);
     }
     
 }
@@ -0,0 +1,144 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+
+/**
+ * A player's hand packed into an int, so a simulator or bot can play a
+ * hand without a Hand, Hid or Card on the heap.
+ *
+ * The bits of a packed hand are:
+ *      0-4     Hard total, Aces counted as 1, up to 31
+ *      5       Soft flag, set if the hand holds an Ace
+ *      6-9     Pair rank: the rank of both cards of a two card pair, or
+ *              the rank of the only card of a one card hand, else 0
+ *      10-13   Number of cards
+ * EMPTY is a hand with no cards, and hit(hand, rank) deals a card to a
+ * hand. StrategyEngine looks a packed hand up without unpacking it into
+ * anything but ints.
+ *
+ * @author Brendan Van Allen
+ */
+public final class PackedHand {
+    /** A hand with no cards */
+    public final static int EMPTY = 0;
+
+    /** Number of bits a packed hand uses */
+    public final static int BITS = 14;
+    public final static int MASK = (1 << BITS) - 1;
+
+    private final static int HARD_MASK = 0x1F;
+    private final static int SOFT_BIT = 1 << 5;
+    private final static int PAIR_SHIFT = 6;
+    private final static int PAIR_MASK = 0xF << PAIR_SHIFT;
+    private final static int SIZE_SHIFT = 10;
+    private final static int SIZE_MASK = 0xF << SIZE_SHIFT;
+
+    private PackedHand() {
+    }
+
+    /**
+     * Deals a card to a packed hand.
+     * @param hand The packed hand
+     * @param rank The card's rank, Ace = 1 through King = 13
+     * @return The packed hand with the card
+     */
+    public static int hit(int hand, int rank) {
+        int size = size(hand);
+        int hard = Math.min(hardTotal(hand) + Math.min(rank, 10), HARD_MASK);
+
+        // The first card's rank is kept until the second shows if it is a pair
+        int pair = 0;
+        if(size == 0 || (size == 1 && pairRank(hand) == rank))
+            pair = rank;
+
+        return hard | (hand & SOFT_BIT) | (rank == Card.ACE ? SOFT_BIT : 0) |
+               (pair << PAIR_SHIFT) | (Math.min(size + 1, 15) << SIZE_SHIFT);
+    }
+
+    /**
+     * Packs the cards of a Hand.
+     * @param hand The hand
+     * @return The packed hand
+     */
+    public static int of(Hand hand) {
+        int packed = EMPTY;
+        for(int i = 0; i < hand.size(); i++)
+            packed = hit(packed, hand.getCard(i).getRank());
+        return packed;
+    }
+
+    /**
+     * Packs a two card hand.
+     * @param rank1 The first card's rank
+     * @param rank2 The second card's rank
+     * @return The packed hand
+     */
+    public static int of(int rank1, int rank2) {
+        return hit(hit(EMPTY, rank1), rank2);
+    }
+
+    /**
+     * Splits a pair, giving one of the two hands, each with one card.
+     * @param hand The packed pair
+     * @return The packed hand holding one card of the pair
+     */
+    public static int split(int hand) {
+        return hit(EMPTY, pairRank(hand));
+    }
+
+    public static int hardTotal(int hand) {
+        return hand & HARD_MASK;
+    }
+
+    public static boolean isSoft(int hand) {
+        return (hand & SOFT_BIT) != 0;
+    }
+
+    /**
+     * Gets the rank of the pair, or of the only card in a one card hand.
+     * @return The rank, or 0 if the hand isn't a pair
+     */
+    public static int pairRank(int hand) {
+        return (hand & PAIR_MASK) >>> PAIR_SHIFT;
+    }
+
+    public static int size(int hand) {
+        return (hand & SIZE_MASK) >>> SIZE_SHIFT;
+    }
+
+    /**
+     * Gets the value of the hand, counting an Ace as 11 if that doesn't bust.
+     */
+    public static int value(int hand) {
+        int hard = hardTotal(hand);
+        return isSoft(hand) && hard <= 11 ? hard + 10 : hard;
+    }
+
+    public static boolean isPair(int hand) {
+        return size(hand) == 2 && pairRank(hand) != 0;
+    }
+
+    public static boolean isBroke(int hand) {
+        return hardTotal(hand) > 21;
+    }
+
+    public static boolean isBlackjack(int hand) {
+        return size(hand) == 2 && value(hand) == 21;
+    }
+
+    /**
+     * Tests for a five card Charlie.
+     */
+    public static boolean isCharlie(int hand) {
+        return size(hand) == 5 && !isBroke(hand);
+    }
+
+    /**
+     * Gets a packed hand as ranks and totals, for logging.
+     */
+    public static String toString(int hand) {
+        return String.format("%d cards, %s %d%s", size(hand), isSoft(hand) ? "soft" : "hard", value(hand),
+                isPair(hand) ? ", pair of " + pairRank(hand) : "");
+    }
+}
@@ -0,0 +1,201 @@
+package charlie.client;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import org.apache.log4j.Logger;
+
+/**
+ * The house rules a strategy table is built for.
+ *
+ * A rule set is written as a name and a spec, e.g.
+ *      vegas = 6D H17 DAS LS
+ * where the spec gives:
+ *      1. The number of decks, e.g. 1D or 6D.
+ *      2. S17 if the dealer stands on soft 17, H17 if the dealer hits it.
+ *      3. DAS if the player can double after a split, NDAS if not.
+ *      4. LS if the player can surrender late, NS if not.
+ *
+ * The rule sets are read from the rules.properties resource next to this
+ * class and then from the file named by the charlie.strategy.rules.file
+ * property, if there is one, so a house can add its own. The rule set
+ * the client plays by is named by the charlie.strategy.rules property and
+ * defaults to CHARLIE, the rules the BasicStrategy tables were written for.
+ *
+ * @author Brendan Van Allen
+ */
+public final class RuleSet {
+    private static final Logger LOG = Logger.getLogger(RuleSet.class);
+
+    public final static String PROPERTY = "charlie.strategy.rules";
+    public final static String FILE_PROPERTY = "charlie.strategy.rules.file";
+    public final static String RESOURCE = "rules.properties";
+
+    /** Charlie's house: six decks, dealer stands on soft 17, double after split, no surrender */
+    public final static RuleSet CHARLIE = new RuleSet("charlie", 6, false, true, false);
+
+    private final static List<RuleSet> CONFIGURED = load();
+
+    private final String name;
+    private final int decks;
+    private final boolean hitSoft17;
+    private final boolean doubleAfterSplit;
+    private final boolean surrender;
+
+    /**
+     * Constructor
+     * @param name The rule set's name
+     * @param decks Number of decks in the shoe
+     * @param hitSoft17 True if the dealer hits soft 17
+     * @param doubleAfterSplit True if the player can double after a split
+     * @param surrender True if the player can surrender late
+     */
+    public RuleSet(String name, int decks, boolean hitSoft17, boolean doubleAfterSplit, boolean surrender) {
+        if(decks < 1)
+            throw new IllegalArgumentException("A shoe needs at least one deck: " + decks);
+
+        this.name = name;
+        this.decks = decks;
+        this.hitSoft17 = hitSoft17;
+        this.doubleAfterSplit = doubleAfterSplit;
+        this.surrender = surrender;
+    }
+
+    /**
+     * Reads a rule set from its spec, e.g. "6D H17 DAS LS". Rules left out
+     * are Charlie's.
+     * @param name The rule set's name
+     * @param spec The rules
+     * @return The rule set
+     * @throws IllegalArgumentException If a rule isn't understood
+     */
+    public static RuleSet parse(String name, String spec) {
+        int decks = CHARLIE.decks;
+        boolean hitSoft17 = CHARLIE.hitSoft17;
+        boolean doubleAfterSplit = CHARLIE.doubleAfterSplit;
+        boolean surrender = CHARLIE.surrender;
+
+        for(String rule : spec.trim().toUpperCase().split("[\\s,]+")) {
+            switch(rule) {
+                case "S17":  hitSoft17 = false; break;
+                case "H17":  hitSoft17 = true; break;
+                case "DAS":  doubleAfterSplit = true; break;
+                case "NDAS": doubleAfterSplit = false; break;
+                case "LS":   surrender = true; break;
+                case "NS":   surrender = false; break;
+                case "":     break;
+
+                default:
+                    if(!rule.matches("\\d+D"))
+                        throw new IllegalArgumentException("Unknown rule " + rule + " in " + name);
+
+                    decks = Integer.parseInt(rule.substring(0, rule.length() - 1));
+            }
+        }
+
+        return new RuleSet(name, decks, hitSoft17, doubleAfterSplit, surrender);
+    }
+
+    /**
+     * Gets the rule sets in the configuration, sorted by name.
+     */
+    public static List<RuleSet> getConfigured() {
+        return CONFIGURED;
+    }
+
+    /**
+     * Finds a configured rule set by name.
+     * @param name The rule set's name
+     * @return The rule set, or CHARLIE if there is no such rule set
+     */
+    public static RuleSet find(String name) {
+        for(RuleSet rules : CONFIGURED)
+            if(rules.name.equalsIgnoreCase(name))
+                return rules;
+
+        return CHARLIE;
+    }
+
+    /**
+     * Gets the rule set named by the charlie.strategy.rules property.
+     */
+    public static RuleSet getDefault() {
+        return find(System.getProperty(PROPERTY));
+    }
+
+    private static List<RuleSet> load() {
+        Properties props = new Properties();
+
+        try(InputStream in = RuleSet.class.getResourceAsStream(RESOURCE)) {
+            if(in != null)
+                props.load(in);
+        }
+        catch(IOException e) {
+            LOG.error("Could not load " + RESOURCE, e);
+        }
+
+        String file = System.getProperty(FILE_PROPERTY);
+        if(file != null) {
+            try(InputStream in = new FileInputStream(file)) {
+                props.load(in);
+            }
+            catch(IOException e) {
+                LOG.error("Could not load rule sets from " + file, e);
+            }
+        }
+
+        List<RuleSet> rules = new ArrayList<>();
+        for(String name : new TreeSet<>(props.stringPropertyNames())) {
+            try {
+                rules.add(parse(name, props.getProperty(name)));
+            }
+            catch(IllegalArgumentException e) {
+                LOG.error("Skipping rule set " + name + ": " + e.getMessage());
+            }
+        }
+
+        return Collections.unmodifiableList(rules);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDecks() {
+        return decks;
+    }
+
+    public boolean dealerHitsSoft17() {
+        return hitSoft17;
+    }
+
+    public boolean canDoubleAfterSplit() {
+        return doubleAfterSplit;
+    }
+
+    public boolean canSurrender() {
+        return surrender;
+    }
+
+    /**
+     * Gets the rules without the name, e.g. "6D H17 DAS LS". Rule sets
+     * with the same spec play the same.
+     */
+    public String getSpec() {
+        return String.format("%dD %s %s %s", decks, hitSoft17 ? "H17" : "S17",
+                doubleAfterSplit ? "DAS" : "NDAS", surrender ? "LS" : "NS");
+    }
+
+    /**
+     * Gets the rule set as it is written in the configuration.
+     */
+    @Override
+    public String toString() {
+        return name + " = " + getSpec();
+    }
+}
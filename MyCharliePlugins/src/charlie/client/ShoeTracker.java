@@ -0,0 +1,257 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hid;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tracks what is left in the shoe for everything in the client.
+ *
+ * The tracker keeps how many of each rank are left, how many cards are
+ * left and the running count, each updated in O(1) as cards are dealt,
+ * so decks remaining and the true count are exact fractions and never
+ * recomputed.
+ *
+ * Plugins that see the deals (HiLoCounter, CountingTrap) feed the shared
+ * tracker. The client hands every plugin the same Card for a deal, so a
+ * card is taken out the first time any of them reports it and ignored
+ * after that. The shoe is tracked once however many plugins feed it and
+ * in whatever order they are loaded, and each is up to date as soon as
+ * it has reported a card. Anything else, like an advisor or a bot, can
+ * subscribe a Listener.
+ *
+ * @author Brendan Van Allen
+ */
+public class ShoeTracker {
+    private static final ShoeTracker INSTANCE = new ShoeTracker(new CountEngine());
+
+    /**
+     * Notified as the tracker changes.
+     */
+    public interface Listener {
+        /**
+         * A card was dealt and the tracker is up to date with it.
+         * @param tracker The tracker
+         * @param hid The hand dealt to, or null if no plugin feeding the tracker knows
+         * @param card The card dealt
+         */
+        void dealt(ShoeTracker tracker, Hid hid, Card card);
+
+        /**
+         * A game started, after the shoe was refilled if it was shuffled.
+         * @param tracker The tracker
+         */
+        default void started(ShoeTracker tracker) {
+        }
+
+        /**
+         * The shoe was refilled at the start of a game.
+         * @param tracker The tracker
+         */
+        default void refilled(ShoeTracker tracker) {
+        }
+    }
+
+    protected final CountEngine engine;
+    protected final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Cards left of each rank, Ace = 1 through King = 13 */
+    protected final int[] remaining = new int[14];
+    protected int cards;
+    protected int decks;
+
+    /** The plugins that have started this game */
+    protected final Set<Object> feeders = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+    /** Cards taken out this game */
+    protected final Set<Card> dealt = Collections.newSetFromMap(new IdentityHashMap<Card, Boolean>());
+
+    /** Cards taken out this game whose hand listeners haven't heard yet */
+    protected final Set<Card> unplaced = Collections.newSetFromMap(new IdentityHashMap<Card, Boolean>());
+
+    /** Whether a plugin that knows which hand each card goes to started this game */
+    protected boolean placing;
+
+    // The first game starts a fresh shoe just like a shuffle does
+    protected boolean shufflePending = true;
+
+    /**
+     * Constructor
+     * @param engine Keeps the running count
+     */
+    public ShoeTracker(CountEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Gets the tracker shared by everything in the client.
+     */
+    public static ShoeTracker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts a game. The shoe is refilled if it was shuffled.
+     * @param from The plugin feeding the tracker
+     * @param shoeSize Number of cards in the shoe
+     */
+    public void startGame(Object from, int shoeSize) {
+        startGame(from, null, shoeSize);
+    }
+
+    /**
+     * Starts a game. The shoe is refilled if it was shuffled. A plugin
+     * that knows the hands starts the game with them, so listeners hear
+     * about each card with its hand however the plugins are ordered.
+     * @param from The plugin feeding the tracker
+     * @param hids The hands in the game, or null if the feeder doesn't know
+     * @param shoeSize Number of cards in the shoe
+     */
+    public void startGame(Object from, List<Hid> hids, int shoeSize) {
+        boolean refilled;
+
+        synchronized(this) {
+            // Other plugins starting the same game only join it
+            boolean joining = !feeders.isEmpty() && !feeders.contains(from);
+            feeders.add(from);
+
+            if(hids != null)
+                placing = true;
+
+            if(joining)
+                return;
+
+            feeders.clear();
+            feeders.add(from);
+            dealt.clear();
+            unplaced.clear();
+            placing = hids != null;
+
+            // The shoe knows best how many cards are left, e.g. after a burn
+            cards = shoeSize;
+
+            refilled = shufflePending;
+            if(shufflePending) {
+                shufflePending = false;
+                decks = Math.max(1, (int) Math.round(shoeSize / 52.0));
+
+                for(int rank = Card.ACE; rank <= Card.KING; rank++)
+                    remaining[rank] = 4 * decks;
+
+                engine.reset(decks);
+            }
+        }
+
+        for(Listener listener : listeners) {
+            if(refilled)
+                listener.refilled(this);
+            listener.started(this);
+        }
+    }
+
+    /**
+     * Takes a dealt card out of the shoe unless it's already out.
+     * @param from The plugin feeding the tracker
+     * @param card The card dealt
+     */
+    public void deal(Object from, Card card) {
+        deal(from, null, card);
+    }
+
+    /**
+     * Takes a dealt card out of the shoe unless it's already out.
+     * Listeners hear about each card once, with its hand if a plugin
+     * that knows the hands started the game.
+     * @param from The plugin feeding the tracker
+     * @param hid The hand dealt to, or null if the feeder doesn't know
+     * @param card The card dealt
+     */
+    public void deal(Object from, Hid hid, Card card) {
+        synchronized(this) {
+            if(card == null)
+                return;
+
+            if(dealt.add(card)) {
+                remaining[card.getRank()]--;
+                cards--;
+                engine.count(card);
+
+                // Hold the card until the plugin that knows its hand reports it
+                if(hid == null && placing) {
+                    unplaced.add(card);
+                    return;
+                }
+            }
+            else if(hid == null || !unplaced.remove(card))
+                return;
+        }
+
+        for(Listener listener : listeners)
+            listener.dealt(this, hid, card);
+    }
+
+    /**
+     * Notes that the shoe will be shuffled before the next game.
+     * @param from The plugin feeding the tracker
+     */
+    public synchronized void shufflePending(Object from) {
+        shufflePending = true;
+    }
+
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the exact number of decks left, at least one card's worth.
+     */
+    public synchronized double getDecksRemaining() {
+        return Math.max(cards, 1) / 52.0;
+    }
+
+    public synchronized int getCardsRemaining() {
+        return cards;
+    }
+
+    /**
+     * Gets how many cards of a rank are left, e.g. the aces side count.
+     * @param rank Ace = 1 through King = 13
+     */
+    public synchronized int getRemaining(int rank) {
+        return remaining[rank];
+    }
+
+    /**
+     * Gets how many ten valued cards are left.
+     */
+    public synchronized int getTensRemaining() {
+        return remaining[10] + remaining[Card.JACK] + remaining[Card.QUEEN] + remaining[Card.KING];
+    }
+
+    public synchronized double getRunningCount() {
+        return engine.getRunningCount();
+    }
+
+    /**
+     * Gets the true count over the exact decks left.
+     */
+    public synchronized double getTrueCount() {
+        return engine.trueCount(getDecksRemaining());
+    }
+
+    public synchronized int getDecks() {
+        return decks;
+    }
+
+    public CountingSystem getSystem() {
+        return engine.getSystem();
+    }
+}
@@ -0,0 +1,248 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.card.Hid;
+import charlie.card.HoleCard;
+import charlie.dealer.Seat;
+import charlie.plugin.IAdvisor;
+import charlie.util.Play;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.log4j.Logger;
+
+/**
+ * An IAdvisor that works out its advice before the player asks.
+ *
+ * It listens to the client's ShoeTracker. As soon as the dealer's upCard
+ * and two of the player's cards are known, a background thread asks the
+ * wrapped advisor about the hand and about the hand with every card that
+ * could come next. When the player asks, the answer is usually already
+ * there. Advice is thrown out at the start of every game.
+ *
+ * Hits, misses and the time hits saved are counted and logged at the
+ * start of each game. Hands only get speculated on if the tracker is fed
+ * by a plugin that knows which hand each card went to, like CountingTrap,
+ * whatever other plugins feed it. Close the advisor to stop listening.
+ *
+ * @author Brendan Van Allen
+ */
+public class SpeculativeAdvisor implements IAdvisor, ShoeTracker.Listener, AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(SpeculativeAdvisor.class);
+
+    private static final ExecutorService SPECULATOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "advice-speculator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Advice and how long it took to work out */
+    protected static class Advice {
+        final Play play;
+        final long nanos;
+
+        Advice(Play play, long nanos) {
+            this.play = play;
+            this.nanos = nanos;
+        }
+    }
+
+    protected final IAdvisor advisor;
+    protected final ShoeTracker tracker;
+    protected final Map<Long, Advice> advice = new ConcurrentHashMap<>();
+
+    /** The player's hands this game, as dealt */
+    protected final Map<Hid, Hand> hands = new ConcurrentHashMap<>();
+    protected volatile Card upCard;
+
+    /** Bumped every game so speculation from the last game is dropped */
+    protected volatile int game;
+    protected volatile Future<?> pending;
+
+    protected final AtomicLong hits = new AtomicLong();
+    protected final AtomicLong misses = new AtomicLong();
+    protected final AtomicLong savedNanos = new AtomicLong();
+    protected final AtomicLong missNanos = new AtomicLong();
+
+    /**
+     * Constructor for a CompositionAdvisor on the client's ShoeTracker
+     */
+    public SpeculativeAdvisor() {
+        this(new CompositionAdvisor(), ShoeTracker.getInstance());
+    }
+
+    /**
+     * Constructor
+     * @param advisor The advisor whose advice is worked out ahead of time
+     * @param tracker Where the cards being dealt are heard about
+     */
+    public SpeculativeAdvisor(IAdvisor advisor, ShoeTracker tracker) {
+        this.advisor = advisor;
+        this.tracker = tracker;
+        tracker.subscribe(this);
+    }
+
+    /**
+     * Stops listening to the tracker, so the advisor can be thrown away.
+     */
+    @Override
+    public void close() {
+        tracker.unsubscribe(this);
+    }
+
+    @Override
+    public Play advise(Hand myHand, Card upCard) {
+        long key = key(myHand, upCard);
+
+        Advice known = key < 0 ? null : advice.get(key);
+        if(known != null) {
+            hits.incrementAndGet();
+            savedNanos.addAndGet(known.nanos);
+            return known.play;
+        }
+
+        long start = System.nanoTime();
+        Play play = advisor.advise(myHand, upCard);
+        long nanos = System.nanoTime() - start;
+
+        misses.incrementAndGet();
+        missNanos.addAndGet(nanos);
+
+        if(key >= 0)
+            advice.put(key, new Advice(play, nanos));
+
+        return play;
+    }
+
+    @Override
+    public void started(ShoeTracker tracker) {
+        game++;
+        advice.clear();
+        hands.clear();
+        upCard = null;
+
+        if(LOG.isInfoEnabled() && hits.get() + misses.get() > 0)
+            LOG.info(report());
+    }
+
+    @Override
+    public void dealt(ShoeTracker tracker, Hid hid, Card card) {
+        if(hid == null)
+            return;
+
+        if(hid.getSeat() == Seat.DEALER) {
+            // The hole card comes first and stays hidden, so the next one is the upCard
+            if(upCard != null || card instanceof HoleCard)
+                return;
+
+            upCard = card;
+            for(Hand hand : hands.values())
+                speculate(hand);
+        }
+        else if(hid.getSeat() == Seat.YOU) {
+            Hand hand = hands.computeIfAbsent(hid, Hand::new);
+            hand.hit(card);
+
+            if(upCard != null)
+                speculate(hand);
+        }
+    }
+
+    /**
+     * Works out the advice for a hand and every next card in the background.
+     * @param hand The player's hand as dealt so far
+     */
+    protected void speculate(Hand hand) {
+        if(hand.size() < 2 || hand.getValue() >= 21)
+            return;
+
+        final int[] ranks = new int[hand.size()];
+        for(int i = 0; i < ranks.length; i++)
+            ranks[i] = hand.getCard(i).getRank();
+
+        final Card up = upCard;
+        final int dealt = game;
+
+        pending = SPECULATOR.submit(() -> {
+            think(ranks, 0, up, dealt);
+
+            // A fifth card is a Charlie, so there is nothing to ask about it
+            if(ranks.length + 1 < 5)
+                for(int rank = Card.ACE; rank <= Card.KING; rank++)
+                    think(ranks, rank, up, dealt);
+        });
+    }
+
+    /**
+     * Asks the advisor about a hand unless its advice is already known.
+     */
+    private void think(int[] ranks, int next, Card up, int dealt) {
+        Hand hand = new Hand(new Hid(Seat.YOU));
+        for(int rank : ranks)
+            hand.hit(new Card(rank, Card.Suit.SPADES));
+        if(next != 0)
+            hand.hit(new Card(next, Card.Suit.SPADES));
+
+        if(hand.getValue() >= 21)
+            return;
+
+        long key = key(hand, up);
+        if(key < 0 || advice.containsKey(key) || dealt != game)
+            return;
+
+        long start = System.nanoTime();
+        Play play = advisor.advise(hand, up);
+        long nanos = System.nanoTime() - start;
+
+        if(dealt == game)
+            advice.putIfAbsent(key, new Advice(play, nanos));
+    }
+
+    /**
+     * Waits for the speculation started last to finish.
+     */
+    void awaitSpeculation() throws InterruptedException, ExecutionException {
+        Future<?> last = pending;
+        if(last != null)
+            last.get();
+    }
+
+    /**
+     * Packs the ranks of a hand and the upCard into a key, four bits each.
+     * @return The key, or -1 for a hand too big to pack
+     */
+    static long key(Hand hand, Card upCard) {
+        if(hand.size() > 14)
+            return -1;
+
+        long key = upCard.getRank();
+        for(int i = 0; i < hand.size(); i++)
+            key = (key << 4) | hand.getCard(i).getRank();
+
+        return key;
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    /**
+     * Gets the time the player didn't wait because the advice was known.
+     */
+    public long getSavedNanos() {
+        return savedNanos.get();
+    }
+
+    public String report() {
+        long miss = misses.get();
+
+        return String.format("advice hit rate %.1f%% (%d hits, %d misses), saved %.3f ms, misses took %.3f ms on average",
+                100 * getHitRate(), hits.get(), miss, savedNanos.get() / 1e6, miss == 0 ? 0 : missNanos.get() / 1e6 / miss);
+    }
+}
@@ -0,0 +1,306 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.util.Play;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable, precompiled strategy lookup.
+ *
+ * The four sections of a strategy table are compiled once into a single
+ * flat array keyed by hand class, hand total and the value of the
+ * dealer's upCard. A decision is then one array index with no
+ * allocations, so the same engine can be shared by advisors, bots
+ * and simulators across threads.
+ *
+ * There is one engine for each RuleSet. The BasicStrategy tables are
+ * written for Charlie's rules and the engine for any other rule set
+ * changes the cells those rules change when it is compiled, so every
+ * engine looks up a play the same way no matter what rules it plays by.
+ * The engines for the configured rule sets are compiled when the class
+ * is loaded.
+ *
+ * @author Brendan Van Allen
+ */
+public final class StrategyEngine {
+    /** Two cards, not a pair, no Ace. Total is the hand value. */
+    public static final int HARD = 0;
+
+    /** Two cards, one Ace, not a pair. Total is the value of the other card. */
+    public static final int SOFT = 1;
+
+    /** Two cards of the same rank. Total is the value of one card. */
+    public static final int PAIR = 2;
+
+    /** More than two cards, so no double down. Total is the hand value. */
+    public static final int MULTI = 3;
+
+    /** Largest hand total kept in the table; busted totals are clamped to it */
+    public static final int MAX_TOTAL = 31;
+
+    /** Shift of the hand class in a key from classify(Hand) */
+    static final int CLASS_KEY_SHIFT = 5;
+
+    private static final int TOTAL_SHIFT = 4;
+    private static final int CLASS_SHIFT = 9;
+    private static final int SIZE = 4 << CLASS_SHIFT;
+
+    /** Table position of the row for every packed hand, so a packed hand isn't classified per call */
+    private static final short[] ROWS = new short[1 << PackedHand.BITS];
+
+    private static final Play H = Play.HIT;
+    private static final Play S = Play.STAY;
+    private static final Play D = Play.DOUBLE_DOWN;
+
+    /** Engines by the spec of the rules they were compiled for */
+    private static final Map<String, StrategyEngine> ENGINES = new ConcurrentHashMap<>();
+
+    /** The engine for the standard basic strategy table, i.e. Charlie's rules */
+    public static final StrategyEngine BASIC = forRules(RuleSet.CHARLIE);
+
+    static {
+        for(int packedHand = 0; packedHand < ROWS.length; packedHand++) {
+            int key = classify(packedHand);
+            ROWS[packedHand] = (short) index(key >> CLASS_KEY_SHIFT, key & MAX_TOTAL, 0);
+        }
+
+        for(RuleSet rules : RuleSet.getConfigured())
+            forRules(rules);
+    }
+
+    private final RuleSet rules;
+    private final Play[] plays = new Play[SIZE];
+
+    /** True for the cells where late surrender beats every play */
+    private final boolean[] surrender = new boolean[SIZE];
+
+    /**
+     * Compiles the basic strategy sections into the flat table and
+     * changes the cells that are different under a rule set.
+     * @param rules The rules to compile for
+     */
+    private StrategyEngine(RuleSet rules) {
+        this.rules = rules;
+
+        for(int up = 1; up <= 10; up++) {
+            for(int total = 0; total <= MAX_TOTAL; total++) {
+                // Two card hands below 12 may still double down
+                plays[index(HARD, total, up)] = total < 12 ?
+                        BasicStrategy.section2(total, up) :
+                        BasicStrategy.section1(total, up);
+
+                // With more than two cards we can't double down, so we always HIT below 12
+                plays[index(MULTI, total, up)] = total < 12 ?
+                        Play.HIT :
+                        BasicStrategy.section1(total, up);
+            }
+
+            for(int value = 2; value <= 10; value++)
+                plays[index(SOFT, value, up)] = BasicStrategy.section3(value, up);
+
+            for(int value = 1; value <= 10; value++)
+                plays[index(PAIR, value, up)] = BasicStrategy.section4(value, up);
+        }
+
+        compile(rules);
+    }
+
+    /**
+     * Changes the cells a rule set plays differently from Charlie's rules.
+     */
+    private void compile(RuleSet rules) {
+        // The dealer hitting soft 17 busts more, so a few more doubles pay
+        if(rules.dealerHitsSoft17()) {
+            set(HARD, 11, 1, D);
+            set(SOFT, 7, 2, D);
+            set(SOFT, 8, 6, D);
+        }
+
+        // With fewer decks each card the player holds changes the shoe more
+        if(rules.getDecks() <= 2) {
+            set(HARD, 9, 2, D);
+            set(HARD, 11, 1, D);
+        }
+
+        if(rules.getDecks() == 1) {
+            set(HARD, 8, 5, D);
+            set(HARD, 8, 6, D);
+            set(SOFT, 6, 2, D);
+            set(PAIR, 7, 10, S);
+        }
+
+        // Some pairs are only worth splitting to double the hands after
+        if(!rules.canDoubleAfterSplit()) {
+            set(PAIR, 2, 2, H);
+            set(PAIR, 2, 3, H);
+            set(PAIR, 3, 2, H);
+            set(PAIR, 3, 3, H);
+            set(PAIR, 4, 5, H);
+            set(PAIR, 4, 6, H);
+            set(PAIR, 6, 2, H);
+        }
+
+        if(rules.canSurrender()) {
+            surrender[index(HARD, 16, 9)] = true;
+            surrender[index(HARD, 16, 10)] = true;
+            surrender[index(HARD, 16, 1)] = true;
+            surrender[index(HARD, 15, 10)] = true;
+
+            if(rules.dealerHitsSoft17()) {
+                surrender[index(HARD, 15, 1)] = true;
+                surrender[index(HARD, 17, 1)] = true;
+            }
+        }
+    }
+
+    private void set(int handClass, int total, int upCardValue, Play play) {
+        plays[index(handClass, total, upCardValue)] = play;
+    }
+
+    /**
+     * Gets the engine for a rule set, compiling it the first time.
+     * @param rules The house rules
+     * @return The engine, shared by every rule set with the same spec
+     */
+    public static StrategyEngine forRules(RuleSet rules) {
+        return ENGINES.computeIfAbsent(rules.getSpec(), spec -> new StrategyEngine(rules));
+    }
+
+    /**
+     * Gets the rules the engine was compiled for. Rule sets with the same
+     * spec share an engine, so this is the first of them to be compiled.
+     */
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    /**
+     * Recommends a Play for the player's hand against the dealer's upCard.
+     * @param myHand The Player's hand
+     * @param upCard The Dealer's upCard
+     * @return A value of the enumerated type Play
+     */
+    public Play getPlay(Hand myHand, Card upCard) {
+        int key = classify(myHand);
+
+        return lookup(key >> CLASS_KEY_SHIFT, key & MAX_TOTAL, upCard.value());
+    }
+
+    /**
+     * Recommends a Play for a packed hand, without allocating anything.
+     * @param packedHand The Player's hand, packed by PackedHand
+     * @param upCardValue The value of the Dealer's upCard, 1 (Ace) to 10
+     * @return A value of the enumerated type Play
+     */
+    public Play getPlay(int packedHand, int upCardValue) {
+        return plays[ROWS[packedHand & PackedHand.MASK] | upCardValue];
+    }
+
+    /**
+     * Recommends Plays for a batch of packed hands in one loop, with no
+     * calls, branches or allocations per hand.
+     * @param packedHands The Player's hands, packed by PackedHand
+     * @param upCardValues The value of the Dealer's upCard for each hand, 1 (Ace) to 10
+     * @param plays Filled with the Play for each hand
+     * @param count Number of hands, from the start of the arrays
+     */
+    public void getPlays(int[] packedHands, int[] upCardValues, Play[] plays, int count) {
+        final Play[] table = this.plays;
+
+        for(int i = 0; i < count; i++)
+            plays[i] = table[ROWS[packedHands[i] & PackedHand.MASK] | upCardValues[i]];
+    }
+
+    /**
+     * Tests if the player should surrender a hand. Play has no surrender,
+     * so this is asked before getPlay when the rules allow it.
+     * @param myHand The Player's hand
+     * @param upCard The Dealer's upCard
+     * @return True if surrendering loses less than any play
+     */
+    public boolean surrenders(Hand myHand, Card upCard) {
+        int key = classify(myHand);
+
+        return surrender[index(key >> CLASS_KEY_SHIFT, key & MAX_TOTAL, upCard.value())];
+    }
+
+    /**
+     * Finds the hand class and total of a hand, the way every table
+     * keyed like this one looks hands up.
+     * @param myHand The Player's hand
+     * @return The hand class shifted left by CLASS_KEY_SHIFT, or'd with the total
+     */
+    static int classify(Hand myHand) {
+        int size = myHand.size();
+
+        // More than 2 cards, or less than 2 after a split, play on the hand value
+        if(size != 2)
+            return key(size > 2 ? MULTI : HARD, myHand.getValue());
+
+        Card card1 = myHand.getCard(0);
+        Card card2 = myHand.getCard(1);
+
+        // myHand must be checked for a pair before anything else
+        if(card1.getRank() == card2.getRank())
+            return key(PAIR, card1.value());
+
+        // If not a pair, then we must see if there is an Ace in myHand
+        if(card1.isAce())
+            return key(SOFT, card2.value());
+
+        if(card2.isAce())
+            return key(SOFT, card1.value());
+
+        return key(HARD, myHand.getValue());
+    }
+
+    /**
+     * Finds the hand class and total of a packed hand, the same as
+     * classify(Hand) does for the cards it was packed from.
+     * @param packedHand The Player's hand, packed by PackedHand
+     * @return The hand class shifted left by CLASS_KEY_SHIFT, or'd with the total
+     */
+    static int classify(int packedHand) {
+        int size = PackedHand.size(packedHand);
+
+        if(size != 2)
+            return key(size > 2 ? MULTI : HARD, PackedHand.value(packedHand));
+
+        int pair = PackedHand.pairRank(packedHand);
+        if(pair != 0)
+            return key(PAIR, Math.min(pair, 10));
+
+        // One Ace, counted as 1 in the hard total, and the other card
+        if(PackedHand.isSoft(packedHand))
+            return key(SOFT, PackedHand.hardTotal(packedHand) - 1);
+
+        return key(HARD, PackedHand.hardTotal(packedHand));
+    }
+
+    private static int key(int handClass, int total) {
+        return (handClass << CLASS_KEY_SHIFT) | Math.max(0, Math.min(total, MAX_TOTAL));
+    }
+
+    /**
+     * Looks up a Play in the compiled table.
+     * @param handClass One of HARD, SOFT, PAIR or MULTI
+     * @param total The total for the hand class
+     * @param upCardValue The value of the Dealer's upCard, 1 (Ace) to 10
+     * @return A value of the enumerated type Play
+     */
+    public Play lookup(int handClass, int total, int upCardValue) {
+        if(total > MAX_TOTAL)
+            total = MAX_TOTAL;
+
+        return plays[index(handClass, total, upCardValue)];
+    }
+
+    /**
+     * Computes the position of a cell in the flat table.
+     */
+    private static int index(int handClass, int total, int upCardValue) {
+        return (handClass << CLASS_SHIFT) | (total << TOTAL_SHIFT) | upCardValue;
+    }
+}
@@ -0,0 +1,129 @@
+package charlie.sidebet.rule;
+
+/**
+ * Computes the exact odds of the side bets in a PayoutTable for an N-deck
+ * shoe by enumerating every pair of first two cards.
+ *
+ * The side bets only depend on the player's first two cards. The dealer's
+ * hole card is dealt between them but is unseen, so it doesn't change
+ * their odds. For each ordered pair of cards the probability is
+ * (copies of card 1 / cards) * (copies of card 2 left / cards - 1), and the
+ * pair is paid the way the table pays it, first match wins.
+ *
+ * Usage: ExactOdds [decks...]
+ *
+ * @author Brendan Van Allen
+ */
+public class ExactOdds {
+    protected final int decks;
+    protected final SideBet[] bets;
+
+    /** Probability each bet's condition holds, on its own */
+    protected final double[] hits;
+
+    /** Probability each bet is the one the table pays */
+    protected final double[] paid;
+
+    /**
+     * Constructor for the side bets in SideBetRule
+     * @param decks Number of decks in the shoe
+     */
+    public ExactOdds(int decks) {
+        this(decks, SideBetRule.TABLE);
+    }
+
+    /**
+     * Constructor
+     * @param decks Number of decks in the shoe
+     * @param table The compiled side bets
+     */
+    public ExactOdds(int decks, PayoutTable table) {
+        this.decks = decks;
+        this.bets = table.getBets();
+        this.hits = new double[bets.length];
+        this.paid = new double[bets.length];
+
+        double cards = 52.0 * decks;
+
+        for(int rank1 = 1; rank1 <= 13; rank1++) {
+            for(int suit1 = 0; suit1 < 4; suit1++) {
+                for(int rank2 = 1; rank2 <= 13; rank2++) {
+                    for(int suit2 = 0; suit2 < 4; suit2++) {
+                        // Drawing the first card leaves one less copy of it
+                        int copies2 = rank1 == rank2 && suit1 == suit2 ? decks - 1 : decks;
+                        double p = (decks / cards) * (copies2 / (cards - 1));
+
+                        for(int bet = 0; bet < bets.length; bet++) {
+                            if(bets[bet].matches(rank1, suit1, rank2, suit2))
+                                hits[bet] += p;
+                        }
+
+                        int winner = table.winner(PayoutTable.key(rank1, suit1, rank2, suit2));
+                        if(winner != PayoutTable.NONE)
+                            paid[winner] += p;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the probability a bet's condition holds.
+     * @param bet Index of the side bet in the table
+     */
+    public double probability(int bet) {
+        return hits[bet];
+    }
+
+    /**
+     * Gets the expected value of a bet per unit wagered, as if it were
+     * the only side bet on the table.
+     * @param bet Index of the side bet in the table
+     */
+    public double expectedValue(int bet) {
+        return hits[bet] * bets[bet].getPayoff() - (1 - hits[bet]);
+    }
+
+    /**
+     * Gets the probability the table pays anything.
+     */
+    public double probability() {
+        double p = 0;
+        for(int bet = 0; bet < paid.length; bet++)
+            p += paid[bet];
+        return p;
+    }
+
+    /**
+     * Gets the expected value of the table per unit wagered.
+     */
+    public double expectedValue() {
+        double ev = 0;
+        for(int bet = 0; bet < paid.length; bet++)
+            ev += paid[bet] * bets[bet].getPayoff();
+        return ev - (1 - probability());
+    }
+
+    public static void main(String[] args) {
+        int[] shoes = { 1, 2, 4, 6, 8 };
+        if(args.length > 0) {
+            shoes = new int[args.length];
+            for(int i = 0; i < args.length; i++)
+                shoes[i] = Integer.parseInt(args[i]);
+        }
+
+        for(int decks : shoes) {
+            long start = System.nanoTime();
+            ExactOdds odds = new ExactOdds(decks);
+            double millis = (System.nanoTime() - start) / 1e6;
+
+            System.out.printf("%d deck(s) (%.3f ms)\n", decks, millis);
+            for(int bet = 0; bet < odds.bets.length; bet++)
+                System.out.printf("  %-12s pays %5.1f:1  prob = %8.6f  EV = %+8.5f  house edge = %7.3f%%\n",
+                        odds.bets[bet].getName(), odds.bets[bet].getPayoff(), odds.probability(bet),
+                        odds.expectedValue(bet), -100 * odds.expectedValue(bet));
+            System.out.printf("  %-12s            prob = %8.6f  EV = %+8.5f  house edge = %7.3f%%\n",
+                    "SideBetRule", odds.probability(), odds.expectedValue(), -100 * odds.expectedValue());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package charlie.sidebet.rule;
+
+import charlie.card.Card;
+
+/**
+ * Side bet definitions compiled into a table indexed by the player's
+ * first two cards.
+ *
+ * Each of the 52 x 52 ordered pairs of cards is checked against the side
+ * bets once, in the order given, and the first match is stored with its
+ * payoff. Settling a side bet is then one array read.
+ *
+ * @author Brendan Van Allen
+ */
+public class PayoutTable {
+    /** Payoff stored for pairs of cards no side bet matches */
+    public final static double LOSE = -1.0;
+
+    /** Winner stored for pairs of cards no side bet matches */
+    public final static int NONE = -1;
+
+    protected final SideBet[] bets;
+    protected final double[] payoffs = new double[52 * 52];
+    protected final int[] winners = new int[52 * 52];
+
+    /**
+     * Constructor
+     * @param bets Side bets in the order they are checked, highest payout first
+     */
+    public PayoutTable(SideBet... bets) {
+        this.bets = bets.clone();
+
+        for(int rank1 = 1; rank1 <= 13; rank1++) {
+            for(int suit1 = 0; suit1 < 4; suit1++) {
+                for(int rank2 = 1; rank2 <= 13; rank2++) {
+                    for(int suit2 = 0; suit2 < 4; suit2++) {
+                        int key = key(rank1, suit1, rank2, suit2);
+
+                        payoffs[key] = LOSE;
+                        winners[key] = NONE;
+
+                        for(int bet = 0; bet < bets.length; bet++) {
+                            if(bets[bet].matches(rank1, suit1, rank2, suit2)) {
+                                payoffs[key] = bets[bet].getPayoff();
+                                winners[key] = bet;
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the payoff per unit bet for the player's first two cards.
+     * @param key The key of the two cards
+     * @return Payoff of the winning side bet, or LOSE
+     */
+    public double payoff(int key) {
+        return payoffs[key];
+    }
+
+    /**
+     * Gets which side bet wins for the player's first two cards.
+     * @param key The key of the two cards
+     * @return Index of the winning side bet, or NONE
+     */
+    public int winner(int key) {
+        return winners[key];
+    }
+
+    /**
+     * Gets the side bets in this table.
+     * @return The side bets in the order they are checked
+     */
+    public SideBet[] getBets() {
+        return bets.clone();
+    }
+
+    /**
+     * Gets the key of two cards.
+     */
+    public static int key(Card card1, Card card2) {
+        return key(card1.getRank(), card1.getSuit().ordinal(), card2.getRank(), card2.getSuit().ordinal());
+    }
+
+    /**
+     * Gets the key of two cards.
+     */
+    public static int key(int rank1, int suit1, int rank2, int suit2) {
+        return (((rank1 - 1) << 2) | suit1) * 52 + (((rank2 - 1) << 2) | suit2);
+    }
+}
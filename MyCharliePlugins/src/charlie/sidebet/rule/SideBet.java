@@ -0,0 +1,69 @@
+package charlie.sidebet.rule;
+
+/**
+ * The definition of one side bet: its name, what it pays and the
+ * condition on the player's first two cards that wins it.
+ * @author Brendan Van Allen
+ */
+public class SideBet {
+    /**
+     * The winning condition of a side bet.
+     */
+    public interface Condition {
+        /**
+         * Tests the player's first two cards.
+         * @param rank1 Rank of the first card
+         * @param suit1 Suit ordinal of the first card
+         * @param rank2 Rank of the second card
+         * @param suit2 Suit ordinal of the second card
+         * @return True if the side bet wins
+         */
+        public boolean matches(int rank1, int suit1, int rank2, int suit2);
+    }
+
+    protected final String name;
+    protected final double payoff;
+    protected final Condition condition;
+
+    /**
+     * Constructor
+     * @param name Name of the side bet
+     * @param payoff Amount paid per unit bet when it wins
+     * @param condition When the side bet wins
+     */
+    public SideBet(String name, double payoff, Condition condition) {
+        this.name = name;
+        this.payoff = payoff;
+        this.condition = condition;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getPayoff() {
+        return payoff;
+    }
+
+    /**
+     * Tests the player's first two cards.
+     * @see Condition#matches
+     */
+    public boolean matches(int rank1, int suit1, int rank2, int suit2) {
+        return condition.matches(rank1, suit1, rank2, suit2);
+    }
+
+    /**
+     * Gets the value of a card of this rank, face cards counting 10.
+     * @param rank Rank of the card
+     * @return Value of the card, Aces counting 1
+     */
+    public static int value(int rank) {
+        return rank > 10 ? 10 : rank;
+    }
+
+    @Override
+    public String toString() {
+        return name + " pays " + payoff + ":1";
+    }
+}
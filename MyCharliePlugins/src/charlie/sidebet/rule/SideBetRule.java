@@ -31,14 +31,51 @@ import org.apache.log4j.Logger;
 /**
  * This class implements the side bet rule for Super 7, Royal Match
  * and Exactly 13.
+ * 
+ * The side bets are defined as data and compiled into a PayoutTable,
+ * so applying the rule is one lookup on the first two cards. To add a
+ * side bet, define it and add it to BETS.
  * @author Ron Coleman and Brendan Van Allen
  */
 public class SideBetRule implements ISideBetRule {
     private final Logger LOG = Logger.getLogger(SideBetRule.class);
     
-    private final Double PAYOFF_SUPER7 = 3.0;
-    private final Double PAYOFF_ROYAL_MATCH = 25.0;
-    private final Double PAYOFF_EXACTLY13 = 1.0;
+    /** Royal Match: King and Queen of the same suit */
+    public static final SideBet ROYAL_MATCH = new SideBet("ROYAL MATCH", 25.0,
+            (rank1, suit1, rank2, suit2) -> suit1 == suit2 &&
+                    ((rank1 == Card.KING && rank2 == Card.QUEEN) ||
+                     (rank1 == Card.QUEEN && rank2 == Card.KING)));
+    
+    /** Super 7: the first card is a 7 */
+    public static final SideBet SUPER7 = new SideBet("SUPER 7", 3.0,
+            (rank1, suit1, rank2, suit2) -> rank1 == 7);
+    
+    /** Exactly 13: the two cards add up to 13, Aces counting 1 */
+    public static final SideBet EXACTLY13 = new SideBet("EXACTLY 13", 1.0,
+            (rank1, suit1, rank2, suit2) -> SideBet.value(rank1) + SideBet.value(rank2) == 13);
+    
+    /** The side bets, highest payout first since that is the order they are checked */
+    public static final SideBet[] BETS = { ROYAL_MATCH, SUPER7, EXACTLY13 };
+    
+    /** The side bets compiled once for all tables */
+    public static final PayoutTable TABLE = new PayoutTable(BETS);
+    
+    protected final PayoutTable table;
+    
+    /**
+     * Constructor
+     */
+    public SideBetRule() {
+        this(TABLE);
+    }
+    
+    /**
+     * Constructor
+     * @param table The compiled side bets this rule pays
+     */
+    public SideBetRule(PayoutTable table) {
+        this.table = table;
+    }
 
     /**
      * Apply rule to the hand and return the payout if the rule matches
@@ -48,44 +85,27 @@ public class SideBetRule implements ISideBetRule {
      */
     @Override
     public double apply(Hand hand) {
-        Double bet = hand.getHid().getSideAmt();
-        LOG.info("side bet amount = "+bet);
+        double bet = hand.getHid().getSideAmt();
         
         // No bet
         if(bet == 0)
             return 0.0;
         
-        LOG.info("side bet rule applying hand = "+hand);
-        
-        Card card1 = hand.getCard(0);
-        Card card2 = hand.getCard(1);
-        
-        // Royal Match has highest payout, so check that first
-        boolean isRoyal = (card1.getRank() == Card.KING && card2.getRank() == Card.QUEEN) ||
-                          (card1.getRank() == Card.QUEEN && card2.getRank() == Card.KING);
-        boolean isMatch = card1.getSuit().equals(card2.getSuit());
-        
-        if(isRoyal && isMatch) {
-            LOG.info("side bet ROYAL MATCH matches");
-            return bet * PAYOFF_ROYAL_MATCH;
-        }
+        int key = PayoutTable.key(hand.getCard(0), hand.getCard(1));
         
-        // Super 7 has the next highest payout, so now check that        
-        if(card1.getRank() == 7) {
-            LOG.info("side bet SUPER 7 matches");
-            return bet * PAYOFF_SUPER7;
-        }
+        if(LOG.isDebugEnabled())
+            LOG.debug("side bet amount = " + bet + " hand = " + hand + " winner = " + winner(key));
         
-        // Exactly 13 has the lowest payout of the 3, so check that last
-        int total = card1.value() + card2.value();
-        if(total == 13){
-            LOG.info("side bet EXACTLY 13 matches");
-            return bet * PAYOFF_EXACTLY13;
-        }
-        
-        LOG.info("side bet rule no match");
+        // A losing hand has a payoff of -1, so the bet is lost
+        return bet * table.payoff(key);
+    }
+    
+    /**
+     * Gets the name of the winning side bet for logging.
+     */
+    private String winner(int key) {
+        int bet = table.winner(key);
         
-        // None of the side bets matched, so the bet was lost
-        return -bet;
+        return bet == PayoutTable.NONE ? "no match" : table.bets[bet].getName();
     }
 }
@@ -0,0 +1,288 @@
+package charlie.sim;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.card.Hid;
+import charlie.client.CompositionSolver;
+import charlie.client.DeviationTable;
+import charlie.client.RuleSet;
+import charlie.client.StrategyEngine;
+import charlie.dealer.Seat;
+import charlie.util.Play;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Works out the deviation tables offline.
+ *
+ * For each true count bucket the generator deals out shoes that end up at
+ * that Hi-Lo count: half the shoe is taken out, with just enough more low
+ * cards than high cards, and which low, neutral and high cards go is random.
+ * Every cell of the table is then solved with a CompositionSolver against
+ * each of those shoes and the play with the best average EV is kept.
+ *
+ * A table is worked out for each configured RuleSet spec, with the rules'
+ * decks and a solver for the rules, and named after the rule set whose
+ * StrategyEngine plays it, so Advisor and RightBot find it by
+ * StrategyEngine.getRules().getName().
+ *
+ * Usage: DeviationGenerator [samples] [threads] [seed] [file] [rule set ...]
+ *
+ * The default writes every configured rule set to
+ * src/charlie/client/deviations.bin, which is then built into the plugin
+ * jar.
+ *
+ * @author Brendan Van Allen
+ */
+public class DeviationGenerator {
+    /** Cards of each value removed together: neutral 7 to 9, low 2 to 6 and high tens and Aces */
+    private final static int NEUTRAL = 0, LOW = 1, HIGH = 2;
+
+    protected final int samples;
+    protected final RuleSet rules;
+    protected final int decks;
+    protected final long seed;
+
+    /**
+     * Constructor
+     * @param samples Shoes solved for each bucket
+     * @param rules The house rules, which give the decks in a full shoe
+     * @param seed Seed for the shoes dealt out
+     */
+    public DeviationGenerator(int samples, RuleSet rules, long seed) {
+        this.samples = samples;
+        this.rules = rules;
+        this.decks = rules.getDecks();
+        this.seed = seed;
+    }
+
+    /**
+     * Works out every bucket of the table for the rules.
+     * @param threads Buckets solved at once
+     * @return The table, named after the rule set its engine plays
+     */
+    public DeviationTable generate(int threads) throws InterruptedException {
+        StrategyEngine engine = StrategyEngine.forRules(rules);
+        final DeviationTable table = new DeviationTable(engine.getRules().getName(), engine);
+        final AtomicInteger next = new AtomicInteger(DeviationTable.MIN_COUNT);
+
+        Thread[] workers = new Thread[threads];
+        for(int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                CompositionSolver solver = new CompositionSolver(rules);
+
+                for(int count = next.getAndIncrement(); count <= DeviationTable.MAX_COUNT; count = next.getAndIncrement()) {
+                    Play[] plays = solve(solver, count);
+
+                    synchronized(table) {
+                        store(table, count, plays);
+                    }
+                }
+            });
+            workers[i].start();
+        }
+
+        for(Thread worker : workers)
+            worker.join();
+
+        return table;
+    }
+
+    /**
+     * Finds the best play of every cell at one count.
+     * @return Plays by cell, in the order the rows are stored
+     */
+    protected Play[] solve(CompositionSolver solver, int count) {
+        int cells = DeviationTable.CELLS;
+        double[][] sums = new double[cells][Play.values().length];
+
+        Random random = new Random(seed + count);
+
+        for(int sample = 0; sample < samples; sample++) {
+            int[] shoe = shoe(count, random);
+
+            int cell = 0;
+            for(int cls = StrategyEngine.HARD; cls <= StrategyEngine.MULTI; cls++)
+                for(int total = DeviationTable.firstTotal(cls); total <= DeviationTable.lastTotal(cls); total++) {
+                    Hand hand = hand(cls, total);
+
+                    for(int up = 1; up <= 10; up++, cell++) {
+                        Card upCard = new Card(up, Card.Suit.HEARTS);
+
+                        int[] left = shoe.clone();
+                        for(int i = 0; i < hand.size(); i++)
+                            CompositionSolver.remove(left, hand.getCard(i));
+                        CompositionSolver.remove(left, upCard);
+
+                        double[] evs = solver.solve(left, hand, upCard);
+                        for(int p = 0; p < evs.length; p++)
+                            sums[cell][p] += evs[p];
+                    }
+                }
+        }
+
+        Play[] plays = new Play[cells];
+        for(int cell = 0; cell < cells; cell++) {
+            Play best = Play.STAY;
+            for(Play play : Play.values())
+                if(sums[cell][play.ordinal()] > sums[cell][best.ordinal()])
+                    best = play;
+
+            plays[cell] = best;
+        }
+
+        return plays;
+    }
+
+    private static void store(DeviationTable table, int count, Play[] plays) {
+        int cell = 0;
+        for(int cls = StrategyEngine.HARD; cls <= StrategyEngine.MULTI; cls++)
+            for(int total = DeviationTable.firstTotal(cls); total <= DeviationTable.lastTotal(cls); total++)
+                for(int up = 1; up <= 10; up++)
+                    table.set(count, cls, total, up, plays[cell++]);
+    }
+
+    /**
+     * Deals out half a shoe so what is left is at a Hi-Lo true count.
+     * @param count The true count
+     * @return The cards left by value
+     */
+    protected int[] shoe(int count, Random random) {
+        int[] shoe = CompositionSolver.shoe(decks);
+
+        int removed = 26 * decks;
+        double decksLeft = (52 * decks - removed) / 52.0;
+
+        // Low cards count +1 and high cards -1 as they are dealt
+        int running = (int) Math.round(count * decksLeft);
+        int neutral = Math.round(removed * 12 / 52f);
+        if((removed - neutral + running) % 2 != 0)
+            neutral++;
+
+        int low = (removed - neutral + running) / 2;
+        int high = removed - neutral - low;
+
+        take(shoe, NEUTRAL, neutral, random);
+        take(shoe, LOW, low, random);
+        take(shoe, HIGH, high, random);
+
+        return shoe;
+    }
+
+    /**
+     * Takes cards of a kind out of a shoe at random.
+     */
+    private static void take(int[] shoe, int kind, int n, Random random) {
+        for(int i = 0; i < n; i++) {
+            int left = 0;
+            for(int v = 1; v <= 10; v++)
+                if(kind(v) == kind)
+                    left += shoe[v];
+
+            if(left == 0)
+                return;
+
+            int pick = random.nextInt(left);
+            for(int v = 1; v <= 10; v++) {
+                if(kind(v) != kind)
+                    continue;
+
+                if(pick < shoe[v]) {
+                    shoe[v]--;
+                    break;
+                }
+                pick -= shoe[v];
+            }
+        }
+    }
+
+    private static int kind(int value) {
+        return value >= 2 && value <= 6 ? LOW : value >= 7 && value <= 9 ? NEUTRAL : HIGH;
+    }
+
+    /**
+     * Makes a hand that looks up the given row.
+     */
+    protected static Hand hand(int cls, int total) {
+        Hand hand = new Hand(new Hid(Seat.YOU));
+
+        switch(cls) {
+            case StrategyEngine.SOFT:
+                hit(hand, Card.ACE, total);
+                break;
+
+            case StrategyEngine.PAIR:
+                hit(hand, total, total);
+                break;
+
+            case StrategyEngine.MULTI:
+                // Three hard cards, e.g. 2, 8, 10 for 20
+                int second = Math.max(2, total - 12);
+                hit(hand, 2, second, total - 2 - second);
+                break;
+
+            default:
+                // Two different ranks, e.g. 10 and King for 20
+                int first = Math.max(2, total - 10);
+                int other = total - first;
+
+                if(first == other && first == 10)
+                    hit(hand, 10, Card.KING);
+                else if(first == other)
+                    hit(hand, first - 1, other + 1);
+                else
+                    hit(hand, first, other);
+        }
+
+        return hand;
+    }
+
+    private static void hit(Hand hand, int... ranks) {
+        for(int rank : ranks)
+            hand.hit(new Card(rank, Card.Suit.SPADES));
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        String file = args.length > 3 ? args[3] : "src/charlie/client/" + DeviationTable.RESOURCE;
+
+        // One table per spec, Charlie's first so it stays the default
+        Map<String, RuleSet> specs = new LinkedHashMap<>();
+        specs.put(RuleSet.CHARLIE.getSpec(), RuleSet.CHARLIE);
+        for(RuleSet rules : RuleSet.getConfigured())
+            specs.putIfAbsent(rules.getSpec(), rules);
+
+        if(args.length > 4) {
+            specs.clear();
+            for(int i = 4; i < args.length; i++) {
+                RuleSet rules = RuleSet.find(args[i]);
+                specs.putIfAbsent(rules.getSpec(), rules);
+            }
+        }
+
+        List<DeviationTable> tables = new ArrayList<>();
+        for(RuleSet rules : specs.values()) {
+            long start = System.nanoTime();
+
+            DeviationGenerator generator = new DeviationGenerator(samples, rules, seed);
+            DeviationTable table = generator.generate(threads);
+            tables.add(table);
+
+            System.out.printf("%s (%s): %d samples per count, seed %d, %.1f s\n",
+                    table.getName(), rules.getSpec(), samples, seed, (System.nanoTime() - start) / 1e9);
+        }
+
+        try(OutputStream out = new FileOutputStream(file)) {
+            DeviationTable.write(tables, out);
+        }
+    }
+}
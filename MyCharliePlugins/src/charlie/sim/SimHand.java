@@ -0,0 +1,51 @@
+package charlie.sim;
+
+import charlie.card.Hand;
+import charlie.card.Hid;
+
+/**
+ * A Hand that can be emptied and dealt again so the simulator does not
+ * allocate a new Hand and Hid for every round.
+ *
+ * @author Brendan Van Allen
+ */
+public class SimHand extends Hand {
+    private final static long serialVersionUID = 1L;
+
+    /** Number of bets riding on this hand, 2 after a double down */
+    protected int bets = 1;
+
+    /** True if this hand came from a split */
+    protected boolean split = false;
+
+    /**
+     * Constructor
+     * @param hid The hand id
+     */
+    public SimHand(Hid hid) {
+        super(hid);
+    }
+
+    /**
+     * Empties the hand for the next round.
+     */
+    public void reset() {
+        cards.clear();
+        values[0] = values[1] = 0;
+        bets = 1;
+        split = false;
+    }
+
+    /**
+     * Moves the second card of this pair into another hand.
+     * @param other The empty hand which receives the card
+     */
+    public void splitInto(SimHand other) {
+        other.reset();
+        other.hit(cards.remove(1));
+        other.split = true;
+
+        revalue();
+        split = true;
+    }
+}
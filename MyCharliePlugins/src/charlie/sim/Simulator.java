@@ -0,0 +1,352 @@
+package charlie.sim;
+
+import charlie.bot.server.RightBot;
+import charlie.card.Card;
+import charlie.card.Hid;
+import charlie.client.Advisor;
+import charlie.client.CountEngine;
+import charlie.client.PackedHand;
+import charlie.client.StrategyEngine;
+import charlie.dealer.Seat;
+import charlie.plugin.IAdvisor;
+import charlie.plugin.IShoe;
+import charlie.util.Play;
+
+/**
+ * A headless, in-process blackjack game for testing strategies.
+ *
+ * The simulator deals from any IShoe, asks an IAdvisor for every play
+ * and plays the dealer with Charlie's house rules:
+ *      1. Blackjack pays 3:2 and is paid before the dealer checks.
+ *      2. Dealer blackjack ends the round before anyone plays.
+ *      3. A five card Charlie pays 2:1.
+ *      4. Dealer stands on all 17s.
+ * Hands are reused between rounds, so nothing is allocated per hand
+ * beyond what the advisor itself allocates.
+ *
+ * The simulator counts its own shoe the way a player at the table would,
+ * turning the hole card over once the player's hands are played. An
+ * Advisor is asked at that true count, so it plays its deviations when
+ * charlie.strategy.deviations is true.
+ *
+ * Usage: Simulator [advisor|rightbot|hueystay] [rounds] [decks] [threads] [seed]
+ *
+ * @author Brendan Van Allen
+ */
+public class Simulator {
+    /** Most hands a player can have after splitting */
+    public final static int MAX_HANDS = 4;
+
+    public final static double BLACKJACK_PAYS = 1.5;
+    public final static double CHARLIE_PAYS = 2.0;
+
+    protected final IShoe shoe;
+    protected final IAdvisor advisor;
+
+    /** The advisor when it is an Advisor, which is given the count */
+    protected final Advisor counted;
+
+    protected final CountEngine count = new CountEngine();
+    protected final int decks;
+    protected final boolean splits;
+    protected final SimHand[] hands = new SimHand[MAX_HANDS];
+    protected final SimHand dealerHand = new SimHand(new Hid(Seat.DEALER));
+    protected final Stats stats = new Stats();
+
+    /**
+     * Constructor
+     * @param shoe Where the cards come from
+     * @param advisor The strategy being tested
+     * @param splits True if the player may split, false to play pairs as hard totals like the bots
+     */
+    public Simulator(IShoe shoe, IAdvisor advisor, boolean splits) {
+        this.shoe = shoe;
+        this.advisor = advisor;
+        this.counted = advisor instanceof Advisor ? (Advisor) advisor : null;
+        this.splits = splits;
+
+        for(int i = 0; i < MAX_HANDS; i++)
+            hands[i] = new SimHand(new Hid(Seat.YOU));
+
+        shoe.init();
+
+        this.decks = Math.max(1, (int) Math.round(shoe.size() / 52.0));
+        count.reset(decks);
+    }
+
+    /**
+     * Plays rounds and adds the outcomes to the stats.
+     * @param rounds Number of rounds to play
+     * @return The stats for all rounds played by this simulator
+     */
+    public Stats run(long rounds) {
+        long start = System.nanoTime();
+
+        for(long round = 0; round < rounds; round++)
+            round();
+
+        stats.nanos += System.nanoTime() - start;
+
+        return stats;
+    }
+
+    /**
+     * Plays one round: deals, plays each hand, plays the dealer and settles.
+     */
+    protected void round() {
+        if(shoe.shuffleNeeded())
+            shuffle();
+
+        SimHand hand = hands[0];
+        hand.reset();
+        dealerHand.reset();
+
+        // Same order as the dealer: me, hole card, me, upCard
+        hand.hit(deal());
+        dealerHand.hit(draw());
+        hand.hit(deal());
+        Card upCard = deal();
+        dealerHand.hit(upCard);
+
+        stats.rounds++;
+        stats.hands++;
+        stats.wagered += 1;
+
+        // Blackjack is paid as soon as it is dealt
+        if(hand.isBlackjack()) {
+            reveal();
+            stats.blackjacks++;
+            stats.wins++;
+            stats.net += BLACKJACK_PAYS;
+            return;
+        }
+
+        // Dealer blackjack ends the game before anyone plays
+        if(dealerHand.isBlackjack()) {
+            reveal();
+            stats.losses++;
+            stats.net -= 1;
+            return;
+        }
+
+        int numHands = 1;
+        boolean standing = false;
+
+        for(int h = 0; h < numHands; h++) {
+            numHands = play(h, numHands, upCard);
+
+            if(!hands[h].isBroke() && !hands[h].isCharlie())
+                standing = true;
+        }
+
+        stats.hands += numHands - 1;
+
+        reveal();
+
+        // Dealer only draws if someone is still waiting on them
+        if(standing) {
+            while(dealerHand.getValue() < 17)
+                dealerHand.hit(deal());
+        }
+
+        for(int h = 0; h < numHands; h++)
+            settle(hands[h]);
+    }
+
+    /**
+     * Plays one of the player's hands to completion.
+     * @param h Which hand
+     * @param numHands Number of hands the player has so far
+     * @param upCard The dealer's upCard
+     * @return Number of hands the player has after this one is played
+     */
+    protected int play(int h, int numHands, Card upCard) {
+        SimHand hand = hands[h];
+
+        // A split hand gets its second card when its turn comes
+        if(hand.size() == 1) {
+            hand.hit(deal());
+
+            // Split Aces only get one card
+            if(hand.getCard(0).isAce())
+                return numHands;
+        }
+
+        while(!hand.isBroke() && !hand.isCharlie() && hand.getValue() < 21) {
+            Play play = counted != null ?
+                    counted.advise(PackedHand.of(hand), upCard.value(), trueCount()) :
+                    advisor.advise(hand, upCard);
+
+            if(play == Play.SPLIT && !(splits && canSplit(hand, numHands)))
+                play = StrategyEngine.BASIC.lookup(StrategyEngine.HARD, hand.getValue(), upCard.value());
+
+            if(play == Play.DOUBLE_DOWN && hand.size() != 2)
+                play = Play.HIT;
+
+            switch(play) {
+                case SPLIT:
+                    hand.splitInto(hands[numHands++]);
+                    stats.splits++;
+                    stats.wagered += 1;
+
+                    hand.hit(deal());
+
+                    if(hand.getCard(0).isAce())
+                        return numHands;
+                    break;
+
+                case DOUBLE_DOWN:
+                    hand.bets = 2;
+                    stats.doubles++;
+                    stats.wagered += 1;
+
+                    hand.hit(deal());
+                    return numHands;
+
+                case HIT:
+                    hand.hit(deal());
+                    break;
+
+                default:
+                    return numHands;
+            }
+        }
+
+        return numHands;
+    }
+
+    /**
+     * Settles a hand against the dealer.
+     * @param hand The player's hand
+     */
+    protected void settle(SimHand hand) {
+        if(hand.isBroke()) {
+            stats.busts++;
+            stats.losses++;
+            stats.net -= hand.bets;
+        }
+        else if(hand.isCharlie()) {
+            stats.charlies++;
+            stats.wins++;
+            stats.net += CHARLIE_PAYS * hand.bets;
+        }
+        else if(dealerHand.isBroke() || hand.getValue() > dealerHand.getValue()) {
+            stats.wins++;
+            stats.net += hand.bets;
+        }
+        else if(hand.getValue() == dealerHand.getValue()) {
+            stats.pushes++;
+        }
+        else {
+            stats.losses++;
+            stats.net -= hand.bets;
+        }
+    }
+
+    /**
+     * Tests if a hand is a pair the player still has room to split.
+     */
+    protected boolean canSplit(SimHand hand, int numHands) {
+        return hand.size() == 2 && numHands < MAX_HANDS &&
+               hand.getCard(0).getRank() == hand.getCard(1).getRank();
+    }
+
+    /**
+     * Deals the next card face up, counting it.
+     */
+    protected Card deal() {
+        Card card = draw();
+
+        count.count(card);
+
+        return card;
+    }
+
+    /**
+     * Draws the next card without counting it, reshuffling if the shoe
+     * runs out mid-round.
+     */
+    protected Card draw() {
+        Card card = shoe.next();
+
+        if(card == null) {
+            shuffle();
+            card = shoe.next();
+        }
+
+        return card;
+    }
+
+    /**
+     * Counts the dealer's hole card once it is turned over.
+     */
+    protected void reveal() {
+        count.count(dealerHand.getCard(0));
+    }
+
+    /**
+     * Shuffles the shoe and starts the count over.
+     */
+    protected void shuffle() {
+        shoe.shuffle();
+        count.reset(decks);
+    }
+
+    /**
+     * Gets the true count over the cards left in the shoe.
+     */
+    protected double trueCount() {
+        return count.trueCount(Math.max(shoe.size(), 1) / 52.0);
+    }
+
+    /**
+     * Gets the strategy by name.
+     * @param name advisor, rightbot or hueystay
+     * @return The strategy as an IAdvisor
+     */
+    public static IAdvisor strategy(String name) {
+        switch(name) {
+            case "rightbot":
+                return RightBot::getPlay;
+
+            // HueyStay always stays no matter what
+            case "hueystay":
+                return (hand, upCard) -> Play.STAY;
+
+            default:
+                return new Advisor();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String name = args.length > 0 ? args[0] : "advisor";
+        long rounds = args.length > 1 ? Long.parseLong(args[1]) : 10000000L;
+        int decks = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+        // Bots can't split, so they are simulated the same way
+        boolean splits = !name.equals("rightbot") && !name.equals("hueystay");
+
+        final Simulator[] sims = new Simulator[threads];
+        Thread[] workers = new Thread[threads];
+
+        for(int i = 0; i < threads; i++) {
+            final Simulator sim = new Simulator(new FastShoe(decks, seed + i), strategy(name), splits);
+            final long share = rounds / threads + (i < rounds % threads ? 1 : 0);
+
+            sims[i] = sim;
+            workers[i] = new Thread(() -> sim.run(share));
+            workers[i].start();
+        }
+
+        Stats total = new Stats();
+        for(int i = 0; i < threads; i++) {
+            workers[i].join();
+            total.merge(sims[i].stats);
+        }
+
+        System.out.printf("%s: %d decks, %d threads, seed %d\n", name, decks, threads, seed);
+        total.print(System.out);
+    }
+}
@@ -0,0 +1,85 @@
+package charlie.sim;
+
+import java.io.PrintStream;
+
+/**
+ * Outcome counts for a simulation run. Counts are per hand played, so a
+ * split round adds more than one hand.
+ *
+ * @author Brendan Van Allen
+ */
+public class Stats {
+    public long rounds;
+    public long hands;
+    public long wins;
+    public long losses;
+    public long pushes;
+    public long blackjacks;
+    public long charlies;
+    public long busts;
+    public long doubles;
+    public long splits;
+
+    /** Units wagered, counting doubles and splits */
+    public double wagered;
+
+    /** Units won (positive) or lost (negative) by the player */
+    public double net;
+
+    /** Wall clock time of the run */
+    public long nanos;
+
+    /**
+     * Adds another run's counts to this one.
+     * @param other The counts to add
+     */
+    public void merge(Stats other) {
+        rounds += other.rounds;
+        hands += other.hands;
+        wins += other.wins;
+        losses += other.losses;
+        pushes += other.pushes;
+        blackjacks += other.blackjacks;
+        charlies += other.charlies;
+        busts += other.busts;
+        doubles += other.doubles;
+        splits += other.splits;
+        wagered += other.wagered;
+        net += other.net;
+        nanos = Math.max(nanos, other.nanos);
+    }
+
+    /**
+     * Gets the house edge as a fraction of the initial bet.
+     * @return House edge, positive when the house wins
+     */
+    public double houseEdge() {
+        return rounds == 0 ? 0 : -net / rounds;
+    }
+
+    /**
+     * Writes the report.
+     * @param out Where to write
+     */
+    public void print(PrintStream out) {
+        double secs = nanos / 1e9;
+
+        out.printf("rounds     %,d (%,.0f rounds/sec)\n", rounds, rounds / secs);
+        out.printf("hands      %,d\n", hands);
+        out.printf("win        %8.4f%%\n", pct(wins));
+        out.printf("lose       %8.4f%%\n", pct(losses));
+        out.printf("push       %8.4f%%\n", pct(pushes));
+        out.printf("blackjack  %8.4f%%\n", pct(blackjacks));
+        out.printf("charlie    %8.4f%%\n", pct(charlies));
+        out.printf("bust       %8.4f%%\n", pct(busts));
+        out.printf("double     %8.4f%%\n", pct(doubles));
+        out.printf("split      %8.4f%%\n", pct(splits));
+        out.printf("wagered    %,.1f units\n", wagered);
+        out.printf("net        %,.1f units\n", net);
+        out.printf("house edge %8.4f%%\n", 100 * houseEdge());
+    }
+
+    private double pct(long count) {
+        return hands == 0 ? 0 : 100.0 * count / hands;
+    }
+}
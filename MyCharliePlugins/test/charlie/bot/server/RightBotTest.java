@@ -0,0 +1,75 @@
+package charlie.bot.server;
+
+import charlie.card.Card;
+import charlie.card.Hid;
+import charlie.card.HoleCard;
+import charlie.client.CountEngine;
+import charlie.client.CountingSystem;
+import charlie.dealer.Seat;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests RightBot follows the cards the way the Dealer deals them.
+ */
+public class RightBotTest {
+    static Card card(int rank) {
+        return new Card(rank, Card.Suit.DIAMONDS);
+    }
+
+    @Test
+    public void holeCardIsNotCounted() {
+        RightBot bot = new RightBot();
+        bot.sit(Seat.RIGHT);
+
+        Hid dealer = new Hid(Seat.DEALER);
+        bot.startGame(Arrays.asList(bot.getHand().getHid(), dealer), 52);
+
+        bot.deal(dealer, new HoleCard(card(5)), new int[] { 0, 0 });
+        Card upCard = card(4);
+        bot.deal(dealer, upCard, new int[] { 4, 4 });
+
+        // The dealer turns the hole card over at the end with a null card
+        bot.deal(dealer, null, new int[] { 9, 9 });
+
+        assertSame(upCard, bot.upCard);
+        assertEquals(1 / (51 / 52.0), bot.getTrueCount(), 1e-12);
+    }
+
+    /**
+     * Seats a bot at a table the way the Dealer does every game.
+     */
+    static RightBot seat(TableCount count, Seat seat, Hid dealer, int shoeSize) {
+        RightBot bot = new RightBot();
+        bot.count = count;
+        bot.sit(seat);
+        bot.startGame(Arrays.asList(bot.getHand().getHid(), dealer), shoeSize);
+        return bot;
+    }
+
+    @Test
+    public void theCountLastsForTheShoe() {
+        TableCount count = new TableCount(new CountEngine(CountingSystem.HI_LO));
+        Hid dealer = new Hid(Seat.DEALER);
+
+        RightBot left = seat(count, Seat.LEFT, dealer, 104);
+        RightBot right = seat(count, Seat.RIGHT, dealer, 104);
+
+        // Every bot at the table is dealt every card
+        for(Card card : new Card[] { card(2), card(3), card(5) }) {
+            left.deal(dealer, card, new int[] { 0, 0 });
+            right.deal(dealer, card, new int[] { 0, 0 });
+        }
+        assertEquals(3 / (101 / 52.0), right.getTrueCount(), 1e-12);
+
+        // The Dealer seats new bots for the next game, which keep counting
+        RightBot next = seat(count, Seat.RIGHT, dealer, 100);
+        next.deal(dealer, card(6), new int[] { 0, 0 });
+        assertEquals(4 / (99 / 52.0), next.getTrueCount(), 1e-12);
+
+        next.shuffling();
+        next = seat(count, Seat.RIGHT, dealer, 104);
+        assertEquals(0, next.getTrueCount(), 0.0);
+    }
+}
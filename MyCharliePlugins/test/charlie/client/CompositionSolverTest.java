@@ -0,0 +1,110 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.card.Hid;
+import charlie.dealer.Seat;
+import charlie.util.Play;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the CompositionSolver against well known six deck results.
+ */
+public class CompositionSolverTest {
+    static Card card(int rank) {
+        return new Card(rank, Card.Suit.HEARTS);
+    }
+
+    /**
+     * Deals a hand out of a six deck shoe, taking the cards out of it.
+     */
+    static Hand hand(int[] shoe, int... ranks) {
+        Hand hand = new Hand(new Hid(Seat.YOU));
+        for(int rank : ranks) {
+            hand.hit(card(rank));
+            CompositionSolver.remove(shoe, card(rank));
+        }
+        return hand;
+    }
+
+    static Play play(int up, int... ranks) {
+        int[] shoe = CompositionSolver.shoe(6);
+        Hand hand = hand(shoe, ranks);
+        CompositionSolver.remove(shoe, card(up));
+
+        return new CompositionSolver().getPlay(shoe, hand, card(up));
+    }
+
+    @Test
+    public void dealerDistributionIsComplete() {
+        CompositionSolver solver = new CompositionSolver();
+
+        for(int up = 1; up <= 10; up++) {
+            int[] shoe = CompositionSolver.shoe(6);
+            shoe[up]--;
+
+            double sum = 0;
+            for(double p : solver.dealer(shoe, up))
+                sum += p;
+
+            assertEquals(1.0, sum, 1e-9);
+        }
+    }
+
+    @Test
+    public void dealerBustsMostWithASix() {
+        int[] shoe = CompositionSolver.shoe(6);
+        shoe[6]--;
+
+        // About 42% in a six deck shoe, dealer standing on soft 17
+        assertEquals(0.42, new CompositionSolver().dealer(shoe, 6)[CompositionSolver.BUST], 0.01);
+    }
+
+    @Test
+    public void dealerHittingSoft17BustsMore() {
+        int[] shoe = CompositionSolver.shoe(6);
+        shoe[6]--;
+
+        double[] s17 = new CompositionSolver().dealer(shoe, 6);
+        double[] h17 = new CompositionSolver(RuleSet.parse("h17", "6D H17")).dealer(shoe, 6);
+
+        // About 44% when the dealer hits soft 17, drawing on A6 instead of standing
+        assertEquals(0.44, h17[CompositionSolver.BUST], 0.01);
+        assertTrue(h17[0] < s17[0]);
+    }
+
+    @Test
+    public void repeatedShoesComeFromTheCache() {
+        CompositionSolver solver = new CompositionSolver();
+        int[] shoe = CompositionSolver.shoe(6);
+
+        solver.dealer(shoe, 10);
+        solver.dealer(shoe.clone(), 10);
+
+        assertEquals(1, solver.getMisses());
+        assertEquals(1, solver.getHits());
+    }
+
+    @Test
+    public void fullShoePlaysMatchBasicStrategy() {
+        assertEquals(Play.DOUBLE_DOWN, play(6, 6, 5));
+        assertEquals(Play.STAY, play(6, 10, Card.KING));
+        assertEquals(Play.HIT, play(10, 10, 6));
+        assertEquals(Play.STAY, play(6, 10, 3));
+        assertEquals(Play.SPLIT, play(6, 8, 8));
+    }
+
+    @Test
+    public void richInTensStandsOnSixteen() {
+        int[] shoe = CompositionSolver.shoe(1);
+        Hand hand = hand(shoe, 10, 6);
+        CompositionSolver.remove(shoe, card(10));
+
+        // Take most of the small cards out so a hit will almost surely bust
+        for(int v = 1; v <= 5; v++)
+            shoe[v] = 0;
+
+        assertEquals(Play.STAY, new CompositionSolver().getPlay(shoe, hand, card(10)));
+    }
+}
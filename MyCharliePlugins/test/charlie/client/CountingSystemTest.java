@@ -0,0 +1,82 @@
+package charlie.client;
+
+import charlie.card.Card;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the counting systems' tag tables and the CountEngine.
+ */
+public class CountingSystemTest {
+    /**
+     * Counts a whole deck.
+     */
+    static double countDeck(CountEngine engine) {
+        for(int rank = Card.ACE; rank <= Card.KING; rank++)
+            for(Card.Suit suit : Card.Suit.values())
+                engine.count(new Card(rank, suit));
+
+        return engine.getRunningCount();
+    }
+
+    @Test
+    public void balancedSystemsCountADeckToZero() {
+        for(CountingSystem system : CountingSystem.values()) {
+            if(!system.isBalanced())
+                continue;
+
+            CountEngine engine = new CountEngine(system);
+            engine.reset(1);
+
+            assertEquals(system.getName(), 0.0, countDeck(engine), 0.0);
+        }
+    }
+
+    @Test
+    public void unbalancedSystemEndsTheShoeAtFour() {
+        CountEngine engine = new CountEngine(CountingSystem.KO);
+        engine.reset(6);
+
+        assertEquals(-20.0, engine.getRunningCount(), 0.0);
+
+        double count = 0;
+        for(int deck = 0; deck < 6; deck++)
+            count = countDeck(engine);
+
+        assertEquals(4.0, count, 0.0);
+    }
+
+    @Test
+    public void hiLoTags() {
+        CountingSystem hiLo = CountingSystem.HI_LO;
+
+        assertEquals(-1, hiLo.tag(Card.ACE));
+        assertEquals(1, hiLo.tag(2));
+        assertEquals(1, hiLo.tag(6));
+        assertEquals(0, hiLo.tag(7));
+        assertEquals(0, hiLo.tag(9));
+        assertEquals(-1, hiLo.tag(10));
+        assertEquals(-1, hiLo.tag(Card.KING));
+    }
+
+    @Test
+    public void wongHalvesCountsHalfPoints() {
+        CountEngine engine = new CountEngine(CountingSystem.WONG_HALVES);
+        engine.reset(2);
+
+        engine.count(new Card(2, Card.Suit.HEARTS));
+        assertEquals(0.5, engine.getRunningCount(), 0.0);
+
+        engine.count(new Card(5, Card.Suit.HEARTS));
+        assertEquals(2.0, engine.getRunningCount(), 0.0);
+        assertEquals(1.0, engine.trueCount(2), 0.0);
+    }
+
+    @Test
+    public void findsSystemsByNameOrConstant() {
+        assertEquals(CountingSystem.OMEGA_II, CountingSystem.find("Omega II"));
+        assertEquals(CountingSystem.ZEN, CountingSystem.find("zen"));
+        assertEquals(CountingSystem.WONG_HALVES, CountingSystem.find("WONG_HALVES"));
+        assertEquals(CountingSystem.HI_LO, CountingSystem.find(null));
+    }
+}
@@ -0,0 +1,180 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.card.Hid;
+import charlie.dealer.Seat;
+import charlie.util.Play;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the packed count-indexed strategy tables.
+ */
+public class DeviationTableTest {
+    static Hand hand(int... ranks) {
+        Hand hand = new Hand(new Hid(Seat.YOU));
+        for(int rank : ranks)
+            hand.hit(new Card(rank, Card.Suit.SPADES));
+        return hand;
+    }
+
+    static Card card(int rank) {
+        return new Card(rank, Card.Suit.HEARTS);
+    }
+
+    @Test
+    public void newTablePlaysBasicStrategyAtEveryCount() {
+        DeviationTable table = new DeviationTable("basic");
+
+        for(int count = DeviationTable.MIN_COUNT; count <= DeviationTable.MAX_COUNT; count++) {
+            assertEquals(Play.STAY, table.getPlay(hand(10, 6), card(6), count));
+            assertEquals(Play.HIT, table.getPlay(hand(10, 6), card(10), count));
+            assertEquals(Play.SPLIT, table.getPlay(hand(8, 8), card(6), count));
+            assertEquals(Play.DOUBLE_DOWN, table.getPlay(hand(5, 6), card(6), count));
+        }
+    }
+
+    @Test
+    public void playsAreKeptPerCount() {
+        DeviationTable table = new DeviationTable("test");
+        table.set(3, StrategyEngine.HARD, 16, 10, Play.STAY);
+
+        assertEquals(Play.STAY, table.getPlay(hand(10, 6), card(Card.KING), 3.2));
+        assertEquals(Play.HIT, table.getPlay(hand(10, 6), card(Card.KING), 2.4));
+        assertEquals(Play.HIT, table.getPlay(hand(10, 6), card(9), 3));
+    }
+
+    @Test
+    public void countsAreRoundedIntoTheBuckets() {
+        assertEquals(0, DeviationTable.bucket(-0.4));
+        assertEquals(1, DeviationTable.bucket(0.5));
+        assertEquals(DeviationTable.MAX_COUNT, DeviationTable.bucket(25));
+        assertEquals(DeviationTable.MIN_COUNT, DeviationTable.bucket(-25));
+    }
+
+    @Test
+    public void handsWithoutARowPlayBasicStrategy() {
+        DeviationTable table = new DeviationTable("test");
+
+        // A split 2 gets one card and is a hard 4
+        assertFalse(DeviationTable.hasRow(StrategyEngine.HARD, 4));
+        assertEquals(StrategyEngine.BASIC.lookup(StrategyEngine.HARD, 4, 5),
+                table.lookup(StrategyEngine.HARD, 4, 5, 0));
+    }
+
+    @Test
+    public void tablesFitInAFewKilobytes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DeviationTable.write(Collections.singletonList(new DeviationTable("test")), out);
+
+        assertTrue(out.size() < 3 * 1024);
+    }
+
+    @Test
+    public void tablesReadBackAsWritten() throws IOException {
+        DeviationTable table = new DeviationTable("test");
+        table.set(-10, StrategyEngine.SOFT, 7, 1, Play.DOUBLE_DOWN);
+        table.set(10, StrategyEngine.PAIR, 10, 5, Play.SPLIT);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DeviationTable.write(Collections.singletonList(table), out);
+
+        List<DeviationTable> tables = DeviationTable.read(new ByteArrayInputStream(out.toByteArray()));
+        DeviationTable read = tables.get(0);
+
+        assertEquals("test", read.getName());
+        assertEquals(Play.DOUBLE_DOWN, read.lookup(StrategyEngine.SOFT, 7, 1, -10));
+        assertEquals(Play.SPLIT, read.lookup(StrategyEngine.PAIR, 10, 5, 10));
+        assertEquals(Play.STAY, read.lookup(StrategyEngine.PAIR, 10, 5, 9));
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFilesAreRejected() throws IOException {
+        DeviationTable.read(new ByteArrayInputStream(new byte[16]));
+    }
+
+    @Test
+    public void generatedTablesAreLoaded() {
+        assertFalse(DeviationTable.getTables().isEmpty());
+
+        DeviationTable table = DeviationTable.getDefault();
+
+        // Hard 20 never hits and 11 vs 6 always doubles, whatever the count
+        for(int count = DeviationTable.MIN_COUNT; count <= DeviationTable.MAX_COUNT; count++) {
+            assertEquals(Play.STAY, table.getPlay(hand(10, Card.KING), card(6), count));
+            assertEquals(Play.DOUBLE_DOWN, table.getPlay(hand(5, 6), card(6), count));
+        }
+
+        // The classic deviation: stand on 16 vs 10 with a high count
+        assertEquals(Play.STAY, table.getPlay(hand(10, 6), card(10), 6));
+    }
+
+    @Test
+    public void everyRuleSetHasATableForItsEngine() {
+        for(RuleSet rules : RuleSet.getConfigured()) {
+            String name = StrategyEngine.forRules(rules).getRules().getName();
+
+            assertTrue(rules.getName(), DeviationTable.getTables().contains(DeviationTable.find(name)));
+        }
+    }
+
+    @Test
+    public void otherRulesKeepTheirCellsWithDeviations() {
+        StrategyEngine vegas = StrategyEngine.forRules(RuleSet.find("vegas"));
+        DeviationTable table = DeviationTable.find(vegas.getRules().getName());
+        DeviationTable charlie = DeviationTable.find(RuleSet.CHARLIE.getName());
+
+        // The dealer hitting soft 17 makes these doubles pay, and only in Vegas
+        assertEquals(Play.DOUBLE_DOWN, vegas.getPlay(hand(Card.ACE, 7), card(2)));
+        assertEquals(Play.DOUBLE_DOWN, table.getPlay(hand(Card.ACE, 7), card(2), 0));
+        assertEquals(Play.STAY, charlie.getPlay(hand(Card.ACE, 7), card(2), 0));
+
+        assertEquals(Play.DOUBLE_DOWN, table.getPlay(hand(Card.ACE, 8), card(6), 0));
+        assertEquals(Play.STAY, charlie.getPlay(hand(Card.ACE, 8), card(6), 0));
+    }
+
+    @Test
+    public void rulesWithoutATablePlayTheirEngineAtEveryCount() {
+        StrategyEngine single = StrategyEngine.forRules(RuleSet.find("single-deck"));
+        DeviationTable table = new DeviationTable("single-deck");
+
+        for(int count = DeviationTable.MIN_COUNT; count <= DeviationTable.MAX_COUNT; count++) {
+            assertEquals(single.getPlay(hand(4, 4), card(5)), table.getPlay(hand(4, 4), card(5), count));
+            assertEquals(single.getPlay(hand(7, 7), card(10)), table.getPlay(hand(7, 7), card(10), count));
+            assertEquals(single.lookup(StrategyEngine.HARD, 4, 5), table.lookup(StrategyEngine.HARD, 4, 5, count));
+        }
+    }
+
+    @Test
+    public void packedHandsPlayLikeTheirCards() {
+        DeviationTable table = DeviationTable.getDefault();
+        int[][] hands = { { 10, 6 }, { 5, 6 }, { Card.ACE, 7 }, { 8, 8 }, { 2, 3, 4 } };
+
+        int[] packed = new int[hands.length];
+        int[] ups = new int[hands.length];
+        Play[] plays = new Play[hands.length];
+
+        for(int count = DeviationTable.MIN_COUNT; count <= DeviationTable.MAX_COUNT; count++) {
+            for(int up = 1; up <= 10; up++) {
+                for(int i = 0; i < hands.length; i++) {
+                    packed[i] = PackedHand.of(hand(hands[i]));
+                    ups[i] = up;
+                }
+                table.getPlays(packed, ups, count, plays, hands.length);
+
+                for(int i = 0; i < hands.length; i++) {
+                    Play play = table.getPlay(hand(hands[i]), card(up), count);
+
+                    assertEquals(play, table.getPlay(packed[i], up, count));
+                    assertEquals(play, plays[i]);
+                }
+            }
+        }
+    }
+}
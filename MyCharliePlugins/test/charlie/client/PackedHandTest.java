@@ -0,0 +1,112 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.card.Hid;
+import charlie.dealer.Seat;
+import charlie.util.Play;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that packed hands play the same as the Hands they were packed from.
+ */
+public class PackedHandTest {
+    static Hand hand(int... ranks) {
+        Hand hand = new Hand(new Hid(Seat.YOU));
+        for(int rank : ranks)
+            hand.hit(new Card(rank, Card.Suit.SPADES));
+        return hand;
+    }
+
+    @Test
+    public void packedHandsKeepTheirTotals() {
+        int hand = PackedHand.of(Card.ACE, 6);
+
+        assertEquals(7, PackedHand.hardTotal(hand));
+        assertTrue(PackedHand.isSoft(hand));
+        assertEquals(17, PackedHand.value(hand));
+        assertEquals(2, PackedHand.size(hand));
+        assertFalse(PackedHand.isPair(hand));
+
+        hand = PackedHand.hit(hand, Card.KING);
+        assertEquals(17, PackedHand.value(hand));
+        assertEquals(3, PackedHand.size(hand));
+    }
+
+    @Test
+    public void onlySameRanksArePairs() {
+        assertTrue(PackedHand.isPair(PackedHand.of(8, 8)));
+        assertEquals(Card.QUEEN, PackedHand.pairRank(PackedHand.of(Card.QUEEN, Card.QUEEN)));
+        assertFalse(PackedHand.isPair(PackedHand.of(Card.JACK, Card.QUEEN)));
+        assertFalse(PackedHand.isPair(PackedHand.hit(PackedHand.of(8, 8), 8)));
+    }
+
+    @Test
+    public void splitHandsHoldOneCardOfThePair() {
+        int hand = PackedHand.split(PackedHand.of(Card.ACE, Card.ACE));
+
+        assertEquals(1, PackedHand.size(hand));
+        assertEquals(11, PackedHand.value(hand));
+    }
+
+    @Test
+    public void blackjackBustAndCharlie() {
+        assertTrue(PackedHand.isBlackjack(PackedHand.of(Card.ACE, Card.KING)));
+        assertFalse(PackedHand.isBlackjack(PackedHand.hit(PackedHand.of(5, 6), 10)));
+        assertTrue(PackedHand.isBroke(PackedHand.hit(PackedHand.of(10, 6), 9)));
+        assertTrue(PackedHand.isCharlie(PackedHand.hit(PackedHand.hit(PackedHand.hit(PackedHand.of(2, 3), 2), 4), 5)));
+    }
+
+    @Test
+    public void packedHandsPlayLikeHands() {
+        for(int up = 1; up <= 10; up++) {
+            Card upCard = new Card(up, Card.Suit.HEARTS);
+
+            for(int rank1 = Card.ACE; rank1 <= Card.KING; rank1++)
+                for(int rank2 = Card.ACE; rank2 <= Card.KING; rank2++) {
+                    Hand hand = hand(rank1, rank2);
+                    int packed = PackedHand.of(hand);
+
+                    assertEquals(hand.getValue(), PackedHand.value(packed));
+                    assertEquals(hand.toString(), StrategyEngine.BASIC.getPlay(hand, upCard),
+                            StrategyEngine.BASIC.getPlay(packed, up));
+
+                    for(int rank3 = Card.ACE; rank3 <= Card.KING; rank3++) {
+                        hand = hand(rank1, rank2, rank3);
+                        packed = PackedHand.hit(PackedHand.of(rank1, rank2), rank3);
+
+                        if(hand.isBroke())
+                            continue;
+
+                        assertEquals(hand.getValue(), PackedHand.value(packed));
+                        assertEquals(hand.toString(), StrategyEngine.BASIC.getPlay(hand, upCard),
+                                StrategyEngine.BASIC.getPlay(packed, up));
+                    }
+                }
+        }
+    }
+
+    @Test
+    public void batchesPlayLikeOneHandAtATime() {
+        int[] hands = new int[13 * 13 * 10];
+        int[] upCards = new int[hands.length];
+        Play[] plays = new Play[hands.length + 1];
+
+        int n = 0;
+        for(int rank1 = Card.ACE; rank1 <= Card.KING; rank1++)
+            for(int rank2 = Card.ACE; rank2 <= Card.KING; rank2++)
+                for(int up = 1; up <= 10; up++, n++) {
+                    hands[n] = PackedHand.of(rank1, rank2);
+                    upCards[n] = up;
+                }
+
+        new Advisor().advise(hands, upCards, plays, n);
+
+        for(int i = 0; i < n; i++)
+            assertEquals(StrategyEngine.BASIC.getPlay(hands[i], upCards[i]), plays[i]);
+
+        // Nothing past count is touched
+        assertNull(plays[n]);
+    }
+}
@@ -0,0 +1,110 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.card.Hid;
+import charlie.dealer.Seat;
+import charlie.util.Play;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the rule sets and the strategy engines compiled for them.
+ */
+public class RuleSetTest {
+    static Hand hand(int... ranks) {
+        Hand hand = new Hand(new Hid(Seat.YOU));
+        for(int rank : ranks)
+            hand.hit(new Card(rank, Card.Suit.SPADES));
+        return hand;
+    }
+
+    static Card card(int rank) {
+        return new Card(rank, Card.Suit.HEARTS);
+    }
+
+    @Test
+    public void specsAreParsed() {
+        RuleSet rules = RuleSet.parse("vegas", "6D H17 DAS LS");
+
+        assertEquals(6, rules.getDecks());
+        assertTrue(rules.dealerHitsSoft17());
+        assertTrue(rules.canDoubleAfterSplit());
+        assertTrue(rules.canSurrender());
+        assertEquals("vegas = 6D H17 DAS LS", rules.toString());
+    }
+
+    @Test
+    public void rulesLeftOutAreCharlies() {
+        assertEquals(RuleSet.CHARLIE.getSpec(), RuleSet.parse("house", "").getSpec());
+        assertEquals("1D S17 DAS NS", RuleSet.parse("house", "1d").getSpec());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownRulesAreRejected() {
+        RuleSet.parse("house", "6D RSA");
+    }
+
+    @Test
+    public void configuredRuleSetsAreLoaded() {
+        RuleSet vegas = RuleSet.find("vegas");
+
+        assertEquals("vegas", vegas.getName());
+        assertTrue(vegas.dealerHitsSoft17());
+        assertSame(RuleSet.CHARLIE, RuleSet.find("no such house"));
+    }
+
+    @Test
+    public void charliesRulesAreTheBasicStrategy() {
+        assertSame(StrategyEngine.BASIC, StrategyEngine.forRules(RuleSet.CHARLIE));
+        assertSame(StrategyEngine.BASIC, StrategyEngine.forRules(RuleSet.parse("copy", "6D S17 DAS NS")));
+    }
+
+    @Test
+    public void dealerHittingSoft17DoublesMore() {
+        StrategyEngine h17 = StrategyEngine.forRules(RuleSet.parse("h17", "6D H17"));
+
+        assertEquals(Play.HIT, StrategyEngine.BASIC.getPlay(hand(5, 6), card(Card.ACE)));
+        assertEquals(Play.DOUBLE_DOWN, h17.getPlay(hand(5, 6), card(Card.ACE)));
+        assertEquals(Play.DOUBLE_DOWN, h17.getPlay(hand(Card.ACE, 7), card(2)));
+    }
+
+    @Test
+    public void withoutDoubleAfterSplitSmallPairsAreHit() {
+        StrategyEngine ndas = StrategyEngine.forRules(RuleSet.parse("ndas", "6D NDAS"));
+
+        assertEquals(Play.SPLIT, StrategyEngine.BASIC.getPlay(hand(4, 4), card(5)));
+        assertEquals(Play.HIT, ndas.getPlay(hand(4, 4), card(5)));
+        assertEquals(Play.SPLIT, ndas.getPlay(hand(8, 8), card(10)));
+    }
+
+    @Test
+    public void singleDeckDoublesMore() {
+        StrategyEngine one = StrategyEngine.forRules(RuleSet.find("single-deck"));
+
+        assertEquals(Play.DOUBLE_DOWN, one.getPlay(hand(5, 4), card(2)));
+        assertEquals(Play.DOUBLE_DOWN, one.getPlay(hand(2, 6), card(6)));
+        assertEquals(Play.HIT, one.getPlay(hand(5, 4, 2), card(Card.ACE)));
+    }
+
+    @Test
+    public void surrenderOnlyWhereTheRulesAllowIt() {
+        StrategyEngine vegas = StrategyEngine.forRules(RuleSet.find("vegas"));
+
+        assertFalse(StrategyEngine.BASIC.surrenders(hand(10, 6), card(10)));
+        assertTrue(vegas.surrenders(hand(10, 6), card(10)));
+        assertTrue(vegas.surrenders(hand(10, 7), card(Card.ACE)));
+        assertFalse(vegas.surrenders(hand(10, 6), card(8)));
+        assertFalse(vegas.surrenders(hand(8, 8), card(10)));
+        assertFalse(vegas.surrenders(hand(5, 5, 6), card(10)));
+    }
+
+    @Test
+    public void theAdvisorSurrendersForTheClient() {
+        Advisor vegas = new Advisor(StrategyEngine.forRules(RuleSet.find("vegas")));
+
+        assertTrue(vegas.surrenders(hand(10, 6), card(10)));
+        assertFalse(vegas.surrenders(hand(10, 6), card(8)));
+        assertFalse(new Advisor(StrategyEngine.BASIC).surrenders(hand(10, 6), card(10)));
+    }
+}
@@ -0,0 +1,92 @@
+package charlie.client;
+
+import charlie.card.Card;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the ShoeTracker keeps the shoe's composition as cards are dealt.
+ */
+public class ShoeTrackerTest {
+    static Card card(int rank) {
+        return new Card(rank, Card.Suit.SPADES);
+    }
+
+    @Test
+    public void decksRemainingAreFractional() {
+        ShoeTracker tracker = new ShoeTracker(new CountEngine(CountingSystem.HI_LO));
+        tracker.startGame(this, 6 * 52);
+
+        for(int i = 0; i < 26; i++)
+            tracker.deal(this, card(5));
+
+        assertEquals(5.5, tracker.getDecksRemaining(), 1e-12);
+        assertEquals(26, tracker.getRunningCount(), 0.0);
+        assertEquals(26 / 5.5, tracker.getTrueCount(), 1e-12);
+    }
+
+    @Test
+    public void sideCountsByRank() {
+        ShoeTracker tracker = new ShoeTracker(new CountEngine(CountingSystem.HI_LO));
+        tracker.startGame(this, 2 * 52);
+
+        tracker.deal(this, card(Card.ACE));
+        tracker.deal(this, card(Card.KING));
+        tracker.deal(this, card(10));
+
+        assertEquals(7, tracker.getRemaining(Card.ACE));
+        assertEquals(30, tracker.getTensRemaining());
+        assertEquals(101, tracker.getCardsRemaining());
+    }
+
+    @Test
+    public void eachCardIsCountedOnceWhoeverReportsIt() {
+        ShoeTracker tracker = new ShoeTracker(new CountEngine(CountingSystem.HI_LO));
+        Object other = new Object();
+
+        // Either plugin may be loaded first and report a card first
+        tracker.startGame(other, 52);
+        tracker.startGame(this, 52);
+
+        Card two = card(2);
+        tracker.deal(this, two);
+        tracker.deal(other, two);
+
+        Card three = card(3);
+        tracker.deal(other, three);
+        assertEquals(50, tracker.getCardsRemaining());
+        tracker.deal(this, three);
+
+        assertEquals(50, tracker.getCardsRemaining());
+        assertEquals(2, tracker.getRunningCount(), 0.0);
+
+        // The next game is started by whichever plugin sees it first
+        tracker.startGame(this, 50);
+        tracker.startGame(other, 50);
+        tracker.deal(other, card(4));
+
+        assertEquals(49, tracker.getCardsRemaining());
+        assertEquals(3, tracker.getRunningCount(), 0.0);
+    }
+
+    @Test
+    public void shuffleRefillsAtNextGame() {
+        ShoeTracker tracker = new ShoeTracker(new CountEngine(CountingSystem.HI_LO));
+        final List<Card> seen = new ArrayList<>();
+        tracker.subscribe((t, hid, card) -> seen.add(card));
+
+        tracker.startGame(this, 52);
+        tracker.deal(this, card(Card.ACE));
+        tracker.shufflePending(this);
+
+        assertEquals(3, tracker.getRemaining(Card.ACE));
+
+        tracker.startGame(this, 52);
+
+        assertEquals(4, tracker.getRemaining(Card.ACE));
+        assertEquals(0, tracker.getRunningCount(), 0.0);
+        assertEquals(1, seen.size());
+    }
+}
@@ -0,0 +1,133 @@
+package charlie.client;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.card.Hid;
+import charlie.card.HoleCard;
+import charlie.dealer.Seat;
+import charlie.message.view.to.Deal;
+import charlie.message.view.to.GameStart;
+import charlie.util.Play;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the SpeculativeAdvisor has advice ready before it is asked.
+ */
+public class SpeculativeAdvisorTest {
+    static Card card(int rank) {
+        return new Card(rank, Card.Suit.CLUBS);
+    }
+
+    @Test
+    public void adviceIsReadyForTheHandAndTheNextCard() throws Exception {
+        final AtomicInteger asked = new AtomicInteger();
+        ShoeTracker tracker = new ShoeTracker(new CountEngine(CountingSystem.HI_LO));
+        SpeculativeAdvisor advisor = new SpeculativeAdvisor((hand, upCard) -> {
+            asked.incrementAndGet();
+            return StrategyEngine.BASIC.getPlay(hand, upCard);
+        }, tracker);
+
+        Hid you = new Hid(Seat.YOU);
+        Hid dealer = new Hid(Seat.DEALER);
+
+        // Dealt in the dealer's order: me, hole card, me, upCard
+        tracker.startGame(this, 6 * 52);
+        tracker.deal(this, you, card(5));
+        tracker.deal(this, dealer, new HoleCard(card(Card.KING)));
+        tracker.deal(this, you, card(4));
+        tracker.deal(this, dealer, card(6));
+        advisor.awaitSpeculation();
+
+        int speculated = asked.get();
+        assertTrue(speculated > 1);
+
+        Hand hand = new Hand(you);
+        hand.hit(card(5));
+        hand.hit(card(4));
+        assertEquals(Play.DOUBLE_DOWN, advisor.advise(hand, card(6)));
+
+        hand.hit(card(2));
+        assertEquals(Play.HIT, advisor.advise(hand, card(6)));
+
+        assertEquals(speculated, asked.get());
+        assertEquals(1.0, advisor.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void newGameDropsAdvice() throws Exception {
+        ShoeTracker tracker = new ShoeTracker(new CountEngine(CountingSystem.HI_LO));
+        SpeculativeAdvisor advisor = new SpeculativeAdvisor(new Advisor(), tracker);
+        Hid you = new Hid(Seat.YOU);
+
+        tracker.startGame(this, 52);
+        tracker.deal(this, you, card(10));
+        tracker.deal(this, you, card(6));
+        tracker.deal(this, new Hid(Seat.DEALER), card(10));
+        advisor.awaitSpeculation();
+
+        tracker.startGame(this, 49);
+
+        Hand hand = new Hand(you);
+        hand.hit(card(10));
+        hand.hit(card(6));
+        advisor.advise(hand, card(10));
+
+        assertEquals(0.0, advisor.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void handsAreKnownWhenTheCounterReportsFirst() throws Exception {
+        ShoeTracker tracker = ShoeTracker.getInstance();
+        HiLoCounter counter = new HiLoCounter();
+        CountingTrap trap = new CountingTrap();
+        Hid you = new Hid(Seat.YOU);
+        Hid dealer = new Hid(Seat.DEALER);
+
+        try(SpeculativeAdvisor advisor = new SpeculativeAdvisor(new Advisor(), tracker)) {
+            // The client starts the counter before the trap sees a message
+            counter.startGame(6 * 52);
+            trap.onReceive(new GameStart(Arrays.asList(you, dealer), 6 * 52));
+
+            Card[] cards = { card(5), new HoleCard(card(Card.KING)), card(4), card(6) };
+            Hid[] hids = { you, dealer, you, dealer };
+            for(int i = 0; i < cards.length; i++) {
+                // The counter doesn't see the hole card until it's turned over
+                if(!(cards[i] instanceof HoleCard))
+                    counter.update(cards[i]);
+                trap.onReceive(new Deal(hids[i], new int[] { 0, 0 }, cards[i]));
+            }
+            advisor.awaitSpeculation();
+
+            Hand hand = new Hand(you);
+            hand.hit(card(5));
+            hand.hit(card(4));
+            assertEquals(Play.DOUBLE_DOWN, advisor.advise(hand, card(6)));
+            assertEquals(1.0, advisor.getHitRate(), 0.0);
+            assertEquals(6 * 52 - 4, tracker.getCardsRemaining());
+        }
+    }
+
+    @Test
+    public void closedAdvisorStopsListening() throws Exception {
+        ShoeTracker tracker = new ShoeTracker(new CountEngine(CountingSystem.HI_LO));
+        SpeculativeAdvisor advisor = new SpeculativeAdvisor(new Advisor(), tracker);
+        advisor.close();
+
+        Hid you = new Hid(Seat.YOU);
+        tracker.startGame(this, 52);
+        tracker.deal(this, you, card(10));
+        tracker.deal(this, you, card(6));
+        tracker.deal(this, new Hid(Seat.DEALER), card(10));
+        advisor.awaitSpeculation();
+
+        Hand hand = new Hand(you);
+        hand.hit(card(10));
+        hand.hit(card(6));
+        advisor.advise(hand, card(10));
+
+        assertEquals(0.0, advisor.getHitRate(), 0.0);
+    }
+}
@@ -0,0 +1,54 @@
+package charlie.sidebet.rule;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the exact side bet odds against hand-computed probabilities.
+ */
+public class ExactOddsTest {
+    static final int ROYAL_MATCH = Arrays.asList(SideBetRule.BETS).indexOf(SideBetRule.ROYAL_MATCH);
+    static final int SUPER7 = Arrays.asList(SideBetRule.BETS).indexOf(SideBetRule.SUPER7);
+    static final int EXACTLY13 = Arrays.asList(SideBetRule.BETS).indexOf(SideBetRule.EXACTLY13);
+
+    @Test
+    public void singleDeck() {
+        ExactOdds odds = new ExactOdds(1);
+
+        // Any of 4 sevens first
+        assertEquals(1 / 13.0, odds.probability(SUPER7), 1e-12);
+
+        // Any of 8 Kings or Queens, then the 1 matching partner
+        assertEquals(8 / 52.0 * 1 / 51.0, odds.probability(ROYAL_MATCH), 1e-12);
+    }
+
+    @Test
+    public void royalMatchDependsOnDecks() {
+        ExactOdds odds = new ExactOdds(6);
+
+        assertEquals(48 / 312.0 * 6 / 311.0, odds.probability(ROYAL_MATCH), 1e-12);
+    }
+
+    @Test
+    public void exactly13SingleDeck() {
+        ExactOdds odds = new ExactOdds(1);
+
+        // 3 and a ten-card (16 of 10, J, Q, K), or 4-9, 5-8 or 6-7, in either
+        // order. The ranks always differ, so the first card never depletes
+        // the second.
+        double p = 2 * (4 / 52.0 * 16 / 51.0 + 3 * (4 / 52.0 * 4 / 51.0));
+
+        assertEquals(224 / 2652.0, p, 1e-12);
+        assertEquals(p, odds.probability(EXACTLY13), 1e-12);
+    }
+
+    @Test
+    public void exactly13DependsOnDecks() {
+        ExactOdds odds = new ExactOdds(6);
+
+        double p = 2 * (24 / 312.0 * 96 / 311.0 + 3 * (24 / 312.0 * 24 / 311.0));
+
+        assertEquals(p, odds.probability(EXACTLY13), 1e-12);
+    }
+}
@@ -0,0 +1,55 @@
+package charlie.sidebet.rule;
+
+import charlie.card.Card;
+import charlie.card.Hand;
+import charlie.card.Hid;
+import charlie.dealer.Seat;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the side bet payouts from the compiled table.
+ */
+public class SideBetRuleTest {
+    static Hand hand(double sideBet, Card card1, Card card2) {
+        Hand hand = new Hand(new Hid(Seat.YOU, 10.0, sideBet));
+        hand.hit(card1);
+        hand.hit(card2);
+        return hand;
+    }
+
+    @Test
+    public void royalMatch() {
+        Hand hand = hand(5.0, new Card(Card.QUEEN, Card.Suit.HEARTS), new Card(Card.KING, Card.Suit.HEARTS));
+
+        assertEquals(125.0, new SideBetRule().apply(hand), 0.0);
+    }
+
+    @Test
+    public void super7() {
+        Hand hand = hand(5.0, new Card(7, Card.Suit.CLUBS), new Card(6, Card.Suit.HEARTS));
+
+        assertEquals(15.0, new SideBetRule().apply(hand), 0.0);
+    }
+
+    @Test
+    public void exactly13() {
+        Hand hand = hand(5.0, new Card(6, Card.Suit.CLUBS), new Card(7, Card.Suit.HEARTS));
+
+        assertEquals(5.0, new SideBetRule().apply(hand), 0.0);
+    }
+
+    @Test
+    public void noMatchLosesBet() {
+        Hand hand = hand(5.0, new Card(Card.KING, Card.Suit.CLUBS), new Card(Card.QUEEN, Card.Suit.HEARTS));
+
+        assertEquals(-5.0, new SideBetRule().apply(hand), 0.0);
+    }
+
+    @Test
+    public void noBet() {
+        Hand hand = hand(0.0, new Card(7, Card.Suit.CLUBS), new Card(6, Card.Suit.HEARTS));
+
+        assertEquals(0.0, new SideBetRule().apply(hand), 0.0);
+    }
+}
@@ -0,0 +1,76 @@
+package charlie.sim;
+
+import charlie.card.Card;
+import charlie.plugin.IShoe;
+import charlie.util.Play;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the simulator pays rounds by Charlie's house rules using
+ * a stacked shoe dealt in the order: me, hole card, me, upCard.
+ */
+public class SimulatorTest {
+    /**
+     * Shoe that deals the given ranks in order, all clubs.
+     */
+    static IShoe stacked(final int... ranks) {
+        return new IShoe() {
+            int index = 0;
+            public void init() { }
+            public boolean shuffleNeeded() { return false; }
+            public void shuffle() { index = 0; }
+            public Card next() { return new Card(ranks[index++ % ranks.length], Card.Suit.CLUBS); }
+            public int size() { return ranks.length - index; }
+        };
+    }
+
+    @Test
+    public void blackjackPaysThreeToTwo() {
+        Simulator sim = new Simulator(stacked(Card.ACE, 10, Card.KING, Card.ACE), Simulator.strategy("advisor"), true);
+
+        Stats stats = sim.run(1);
+
+        assertEquals(1, stats.blackjacks);
+        assertEquals(1.5, stats.net, 0.0);
+    }
+
+    @Test
+    public void dealerBlackjackEndsRound() {
+        Simulator sim = new Simulator(stacked(10, 10, 6, Card.ACE), Simulator.strategy("advisor"), true);
+
+        Stats stats = sim.run(1);
+
+        assertEquals(1, stats.losses);
+        assertEquals(-1.0, stats.net, 0.0);
+    }
+
+    @Test
+    public void standingTwentyBeatsEighteen() {
+        Simulator sim = new Simulator(stacked(10, 8, Card.QUEEN, 10), Simulator.strategy("hueystay"), false);
+
+        Stats stats = sim.run(1);
+
+        assertEquals(1, stats.wins);
+        assertEquals(1.0, stats.net, 0.0);
+    }
+
+    @Test
+    public void holeCardIsCountedOnceTurnedOver() {
+        final double[] running = new double[1];
+        final Simulator[] sim = new Simulator[1];
+
+        sim[0] = new Simulator(stacked(2, 10, 3, 4, 10), (hand, upCard) -> {
+            running[0] = sim[0].count.getRunningCount();
+            return Play.STAY;
+        }, false);
+
+        sim[0].run(1);
+
+        // The 2, 3 and 4 were seen when the player stayed, not the hole 10
+        assertEquals(3.0, running[0], 0.0);
+
+        // Then the hole 10 and the dealer's 10 that busted
+        assertEquals(1.0, sim[0].count.getRunningCount(), 0.0);
+    }
+}
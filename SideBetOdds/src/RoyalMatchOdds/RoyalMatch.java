@@ -2,60 +2,69 @@ package RoyalMatchOdds;
 
 import charlie.card.Card;
 import charlie.card.Shoe;
+import sidebetodds.DrawShoe;
+import sidebetodds.MonteCarlo;
+import sidebetodds.Trial;
 
 /**
  * This program estimates the odds of Royal Match using Monte Carlo simulation.
  * @author Brendan Van Allen
  */
-public class RoyalMatch {
+public class RoyalMatch implements Trial {
     public final static int NUM_SAMPLES = 1000000;
 
-    public static void main(String[] args) { 
+    /**
+     * Command line: [samples] [decks] [seed] [threads] [draw|shoe]
+     */
+    public static void main(String[] args) throws InterruptedException { 
+        new MonteCarlo("Royal Match", new RoyalMatch(), NUM_SAMPLES).parse(args).report();
+    }
+
+    @Override
+    public boolean hit(Shoe shoe) {
+            
+        // Initialize the shoe--reloads the shoe and shuffles
+        shoe.init();
+
+        // Get our first card
+        Card card1 = shoe.next();
+
+        // Dealer's hole card
+        shoe.next();
+
+        // Get our 2nd card
+        Card card2 = shoe.next();
+
+        // Dealer's up-card
+        shoe.next();
+
+        // If our cards are King and Queen of same suit, count it
+        if(card1.getRank() == Card.KING)
+            return card2.getRank() == Card.QUEEN && card1.getSuit().equals(card2.getSuit());
         
-        // Only need a one deck, standard shoe
-        Shoe shoe = new Shoe(1);
-               
-        // Frequency we draw suited King and Queen as our first 2 cards
-        int count = 0;
+        if(card1.getRank() == Card.QUEEN)
+            return card2.getRank() == Card.KING && card1.getSuit().equals(card2.getSuit());
         
-        // Main loop of the simulation
-        for(int sim=0; sim < NUM_SAMPLES; sim++) {
-            
-            // Initialize the shoe--reloads the shoe and shuffles
-            shoe.init();
+        return false;
+    }
+
+    @Override
+    public boolean hit(DrawShoe shoe) {
         
-            // Get our first card
-            Card card1 = shoe.next();
-            
-            // Dealer's hole card
-            shoe.next();
-            
-            // Get our 2nd card
-            Card card2 = shoe.next();
-            
-            // Dealer's up-card
-            shoe.next();
-            
-            // If our cards are King and Queen of same suit, count it
-            if(card1.getRank() == Card.KING) {
-                if(card2.getRank() == Card.QUEEN && card1.getSuit().equals(card2.getSuit())) {
-                    count++;
-                }
-            } else if(card1.getRank() == Card.QUEEN) {
-                if(card2.getRank() == Card.KING && card1.getSuit().equals(card2.getSuit())) {
-                    count++;
-                }
-            }
-                
-        }
+        // Royal Match only depends on our two cards. The dealer's hole card
+        // dealt between them is unseen, so it doesn't change their odds.
+        int card1 = shoe.next();
+        int card2 = shoe.next();
         
-        // Compute the estimate probablity and odds
-        double p = (count / (double)NUM_SAMPLES);
+        // If our cards are King and Queen of same suit, count it
+        if(DrawShoe.suit(card1) != DrawShoe.suit(card2))
+            return false;
         
-        int odds = (int) (((1 - p) / p) + 0.5);
+        int rank1 = DrawShoe.rank(card1);
+        int rank2 = DrawShoe.rank(card2);
         
-        System.out.printf("Royal Match prob = %8.6f odds = %d:1\n", p, odds);
+        return (rank1 == Card.KING && rank2 == Card.QUEEN) || (rank1 == Card.QUEEN && rank2 == Card.KING);
     }
     
         
-}
\ No newline at end of file
+}
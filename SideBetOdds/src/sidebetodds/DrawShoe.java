@@ -0,0 +1,84 @@
+package sidebetodds;
+
+import java.util.SplittableRandom;
+
+/**
+ * A shoe for odds simulations that only shuffles the cards it deals.
+ *
+ * Cards are ints in a reusable array, encoded as (rank << 2) | suit, so
+ * no Card objects are created. Each draw is one step of a Fisher-Yates
+ * shuffle: a random card from the undealt part of the array is swapped
+ * to the front and dealt. Since the array is always a permutation of the
+ * full shoe, starting a new sample only rewinds the front; it does not
+ * reload or reshuffle. The cost of a sample is the number of cards it
+ * draws, no matter how many decks are in the shoe.
+ *
+ * @author Brendan Van Allen
+ */
+public class DrawShoe {
+    protected final int[] cards;
+    protected final SplittableRandom ran;
+    protected int index;
+
+    /**
+     * Constructor
+     * @param numDecks Number of decks in the shoe
+     * @param seed Seed of this shoe's random number stream
+     */
+    public DrawShoe(int numDecks, long seed) {
+        this.cards = new int[numDecks * 52];
+        this.ran = new SplittableRandom(seed);
+
+        int n = 0;
+        for(int deck = 0; deck < numDecks; deck++)
+            for(int rank = 1; rank <= 13; rank++)
+                for(int suit = 0; suit < 4; suit++)
+                    cards[n++] = encode(rank, suit);
+    }
+
+    /**
+     * Puts all the dealt cards back for the next sample.
+     */
+    public void init() {
+        index = 0;
+    }
+
+    /**
+     * Deals the next card.
+     * @return The encoded card
+     */
+    public int next() {
+        // One step of Fisher-Yates over the undealt cards
+        int j = index + ran.nextInt(cards.length - index);
+
+        int card = cards[j];
+        cards[j] = cards[index];
+        cards[index++] = card;
+
+        return card;
+    }
+
+    /**
+     * Encodes a card.
+     * @param rank Rank from Card.ACE to Card.KING
+     * @param suit Ordinal of the card's Card.Suit
+     * @return The encoded card
+     */
+    public static int encode(int rank, int suit) {
+        return (rank << 2) | suit;
+    }
+
+    /**
+     * Gets the rank of an encoded card.
+     */
+    public static int rank(int card) {
+        return card >> 2;
+    }
+
+    /**
+     * Gets the suit ordinal of an encoded card.
+     */
+    public static int suit(int card) {
+        return card & 3;
+    }
+}
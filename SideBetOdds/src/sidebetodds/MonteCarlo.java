@@ -0,0 +1,158 @@
+package sidebetodds;
+
+import charlie.card.Shoe;
+import java.util.SplittableRandom;
+
+/**
+ * Runs a side bet Monte Carlo simulation on all cores.
+ *
+ * The samples are split across worker threads. Each worker has its own
+ * shoe and its own random number stream split from the master seed, so
+ * a run with the same samples, decks, seed and threads gives the same
+ * counts. The counts are merged when all workers finish.
+ *
+ * By default samples draw from a DrawShoe, which shuffles only the cards
+ * each sample needs. The "shoe" mode uses a full charlie.card.Shoe that
+ * is reloaded and shuffled for every sample.
+ *
+ * Command line: [samples] [decks] [seed] [threads] [draw|shoe]
+ *
+ * @author Brendan Van Allen
+ */
+public class MonteCarlo {
+    /** z for a 95% confidence interval */
+    public final static double Z95 = 1.96;
+
+    protected final String name;
+    protected final Trial trial;
+
+    protected long samples;
+    protected int decks = 1;
+    protected long seed = System.nanoTime();
+    protected int threads = Runtime.getRuntime().availableProcessors();
+    protected boolean lazy = true;
+
+    /**
+     * Constructor
+     * @param name Name of the side bet for the report
+     * @param trial One sample of the side bet
+     * @param samples Default number of samples
+     */
+    public MonteCarlo(String name, Trial trial, long samples) {
+        this.name = name;
+        this.trial = trial;
+        this.samples = samples;
+    }
+
+    /**
+     * Reads the settings from the command line.
+     * @param args [samples] [decks] [seed] [threads] [draw|shoe]
+     * @return This simulation
+     */
+    public MonteCarlo parse(String[] args) {
+        if(args.length > 0)
+            samples = Long.parseLong(args[0]);
+        if(args.length > 1)
+            decks = Integer.parseInt(args[1]);
+        if(args.length > 2)
+            seed = Long.parseLong(args[2]);
+        if(args.length > 3)
+            threads = Integer.parseInt(args[3]);
+        if(args.length > 4)
+            lazy = !args[4].equals("shoe");
+
+        return this;
+    }
+
+    /**
+     * Runs the samples on the worker threads and merges the counts.
+     * @return Number of samples where the side bet won
+     */
+    public long run() throws InterruptedException {
+        final long[] counts = new long[threads];
+        Thread[] workers = new Thread[threads];
+
+        // Each worker gets an independent stream split from the master seed
+        SplittableRandom master = new SplittableRandom(seed);
+
+        for(int i = 0; i < threads; i++) {
+            final int worker = i;
+            final long share = samples / threads + (i < samples % threads ? 1 : 0);
+            final long stream = master.split().nextLong();
+
+            workers[i] = new Thread(() -> {
+                counts[worker] = lazy ? draw(share, stream) : shuffle(share, stream);
+            });
+            workers[i].start();
+        }
+
+        long count = 0;
+        for(int i = 0; i < threads; i++) {
+            workers[i].join();
+            count += counts[i];
+        }
+
+        return count;
+    }
+
+    /**
+     * Runs a worker's samples on a draw shoe.
+     * @param share Number of samples
+     * @param stream Seed of the worker's random number stream
+     * @return Number of samples where the side bet won
+     */
+    protected long draw(long share, long stream) {
+        DrawShoe shoe = new DrawShoe(decks, stream);
+        long count = 0;
+
+        for(long sim = 0; sim < share; sim++) {
+            shoe.init();
+
+            if(trial.hit(shoe))
+                count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Runs a worker's samples on a standard shoe.
+     * @param share Number of samples
+     * @param stream Seed of the worker's random number stream
+     * @return Number of samples where the side bet won
+     */
+    protected long shuffle(long share, long stream) {
+        Shoe shoe = new SeededShoe(decks, stream);
+        long count = 0;
+
+        for(long sim = 0; sim < share; sim++) {
+            if(trial.hit(shoe))
+                count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Runs the simulation and prints the probability, odds, confidence
+     * interval and throughput.
+     */
+    public void report() throws InterruptedException {
+        long start = System.nanoTime();
+        long count = run();
+        double secs = (System.nanoTime() - start) / 1e9;
+
+        // Compute the estimate probablity and odds
+        double p = (count / (double)samples);
+
+        int odds = (int) (((1 - p) / p) + 0.5);
+
+        // Normal approximation to the binomial
+        double halfWidth = Z95 * Math.sqrt(p * (1 - p) / samples);
+
+        System.out.printf("%s prob = %8.6f odds = %d:1\n", name, p, odds);
+        System.out.printf("95%% CI = [%8.6f, %8.6f]\n", p - halfWidth, p + halfWidth);
+        System.out.printf("%,d samples, %d decks, seed %d, %d threads, %s: %.2f s (%,.0f samples/sec)\n",
+                samples, decks, seed, threads, lazy ? "draw" : "shoe", secs, samples / secs);
+    }
+}
@@ -0,0 +1,21 @@
+package sidebetodds;
+
+import charlie.card.Shoe;
+import java.util.Random;
+
+/**
+ * A standard shoe whose shuffles come from a seeded random number
+ * stream, so each worker's samples can be reproduced.
+ * @author Brendan Van Allen
+ */
+public class SeededShoe extends Shoe {
+    /**
+     * Constructor
+     * @param numDecks Number of decks in the shoe
+     * @param seed Seed of this shoe's random number stream
+     */
+    public SeededShoe(int numDecks, long seed) {
+        super(numDecks);
+        ran = new Random(seed);
+    }
+}
@@ -0,0 +1,23 @@
+package sidebetodds;
+
+import charlie.card.Shoe;
+
+/**
+ * One sample of a side bet simulation.
+ * @author Brendan Van Allen
+ */
+public interface Trial {
+    /**
+     * Deals one hand from a freshly initialized shoe.
+     * @param shoe The worker's shoe
+     * @return True if the side bet wins on this hand
+     */
+    public boolean hit(Shoe shoe);
+
+    /**
+     * Deals one hand, drawing only the cards the side bet needs.
+     * @param shoe The worker's draw shoe, already rewound
+     * @return True if the side bet wins on this hand
+     */
+    public boolean hit(DrawShoe shoe);
+}